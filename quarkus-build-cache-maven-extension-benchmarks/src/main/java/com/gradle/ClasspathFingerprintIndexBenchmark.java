@@ -0,0 +1,71 @@
+package com.gradle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Cost of the classpath digest declared when the classpath index is enabled.
+ * <ul>
+ *     <li>emptyIndex: every jar is hashed, as in the first build on a machine</li>
+ *     <li>savedIndex: the index is read from disk and no jar is hashed, as in the next builds</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClasspathFingerprintIndexBenchmark {
+
+    @Param({"50", "200", "1000"})
+    int classpathEntries;
+
+    @Param({"65536"})
+    int jarSize;
+
+    private SyntheticQuarkusProject project;
+    private Predicate<File> isIndexed;
+    private File indexFile;
+
+    @Setup
+    public void setup() {
+        project = SyntheticQuarkusProject.create(0, classpathEntries, QuarkusConfigKeys.PACKAGE_FAST_JAR, jarSize);
+        String localRepositoryPath = project.getLocalRepository().getAbsolutePath() + File.separator;
+        isIndexed = file -> file.getAbsolutePath().startsWith(localRepositoryPath) && file.isFile();
+
+        indexFile = new File(project.getBasedir(), "classpath-index");
+        ClasspathFingerprintIndex index = ClasspathFingerprintIndex.load(indexFile);
+        index.digest(project.getClasspathElements(), isIndexed);
+        index.save();
+    }
+
+    @TearDown
+    public void tearDown() {
+        project.delete();
+    }
+
+    @Benchmark
+    public String emptyIndex() {
+        return ClasspathFingerprintIndex.load(new File(project.getBasedir(), "missing-index")).digest(project.getClasspathElements(), isIndexed);
+    }
+
+    @Benchmark
+    public String savedIndex() {
+        return ClasspathFingerprintIndex.load(indexFile).digest(project.getClasspathElements(), isIndexed);
+    }
+}
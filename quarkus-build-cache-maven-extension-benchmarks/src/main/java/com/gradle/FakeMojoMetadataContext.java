@@ -0,0 +1,233 @@
+package com.gradle;
+
+import com.gradle.maven.extension.api.cache.MojoMetadataProvider;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * In-memory mojo metadata context, counting the declared inputs and outputs instead of fingerprinting them.
+ */
+final class FakeMojoMetadataContext implements MojoMetadataProvider.Context {
+
+    private final MavenSession session;
+    private final MavenProject project;
+    private final MojoExecution mojoExecution;
+    private final Recorder recorder = new Recorder();
+
+    FakeMojoMetadataContext(MavenSession session, MavenProject project, MojoExecution mojoExecution) {
+        this.session = session;
+        this.project = project;
+        this.mojoExecution = mojoExecution;
+    }
+
+    /**
+     * @return number of inputs and outputs declared so far
+     */
+    int getDeclarations() {
+        return recorder.declarations;
+    }
+
+    @Override
+    public Object getUnderlyingObject() {
+        return this;
+    }
+
+    @Override
+    public MojoExecution getMojoExecution() {
+        return mojoExecution;
+    }
+
+    @Override
+    public MavenProject getProject() {
+        return project;
+    }
+
+    @Override
+    public MavenSession getSession() {
+        return session;
+    }
+
+    @Override
+    public void withPlugin(String artifactId, Runnable action) {
+        if(artifactId.equals(mojoExecution.getArtifactId())) {
+            action.run();
+        }
+    }
+
+    @Override
+    public MojoMetadataProvider.Context skipIfTrue(String... propertyNames) {
+        return this;
+    }
+
+    @Override
+    public MojoMetadataProvider.Context skipIfTrue(List<String> propertyNames) {
+        return this;
+    }
+
+    @Override
+    public MojoMetadataProvider.Context inputs(Consumer<? super Inputs> action) {
+        action.accept(recorder);
+        return this;
+    }
+
+    @Override
+    public MojoMetadataProvider.Context outputs(Consumer<? super Outputs> action) {
+        action.accept(recorder);
+        return this;
+    }
+
+    @Override
+    public MojoMetadataProvider.Context localState(Consumer<? super LocalState> action) {
+        action.accept(recorder);
+        return this;
+    }
+
+    @Override
+    public MojoMetadataProvider.Context nested(String propertyName, Consumer<? super MojoMetadataProvider.Context> action) {
+        action.accept(this);
+        return this;
+    }
+
+    @Override
+    public MojoMetadataProvider.Context iterate(String propertyName, Consumer<? super MojoMetadataProvider.Context> action) {
+        action.accept(this);
+        return this;
+    }
+
+    private static final class Recorder implements Inputs, Outputs, LocalState, FileSet {
+
+        private int declarations;
+
+        @Override
+        public Inputs properties(String... propertyNames) {
+            declarations += propertyNames.length;
+            return this;
+        }
+
+        @Override
+        public Inputs property(String name, Object value) {
+            declarations++;
+            return this;
+        }
+
+        @Override
+        public Inputs fileSet(String propertyName, Consumer<FileSet> action) {
+            declarations++;
+            action.accept(this);
+            return this;
+        }
+
+        @Override
+        public Inputs fileSet(String name, Object value, Consumer<FileSet> action) {
+            declarations++;
+            action.accept(this);
+            return this;
+        }
+
+        @Override
+        public Inputs ignore(String... propertyNames) {
+            declarations += propertyNames.length;
+            return this;
+        }
+
+        @Override
+        public Outputs file(String propertyName) {
+            declarations++;
+            return this;
+        }
+
+        @Override
+        public Outputs file(String name, Object value) {
+            declarations++;
+            return this;
+        }
+
+        @Override
+        public Outputs directory(String propertyName) {
+            declarations++;
+            return this;
+        }
+
+        @Override
+        public Outputs directory(String name, Object value) {
+            declarations++;
+            return this;
+        }
+
+        @Override
+        public Outputs cacheable(String reason) {
+            return this;
+        }
+
+        @Override
+        public Outputs notCacheableBecause(String reason) {
+            return this;
+        }
+
+        @Override
+        public Outputs storeEnabled(boolean storeEnabled) {
+            return this;
+        }
+
+        @Override
+        public LocalState files(String propertyName) {
+            declarations++;
+            return this;
+        }
+
+        @Override
+        public LocalState files(String name, Object value) {
+            declarations++;
+            return this;
+        }
+
+        @Override
+        public FileSet includesProperty(String propertyName) {
+            return this;
+        }
+
+        @Override
+        public FileSet include(List<String> patterns) {
+            return this;
+        }
+
+        @Override
+        public FileSet include(String... patterns) {
+            return this;
+        }
+
+        @Override
+        public FileSet excludesProperty(String propertyName) {
+            return this;
+        }
+
+        @Override
+        public FileSet exclude(List<String> patterns) {
+            return this;
+        }
+
+        @Override
+        public FileSet exclude(String... patterns) {
+            return this;
+        }
+
+        @Override
+        public FileSet normalizationStrategy(NormalizationStrategy normalizationStrategy) {
+            return this;
+        }
+
+        @Override
+        public FileSet emptyDirectoryHandling(EmptyDirectoryHandling emptyDirectoryHandling) {
+            return this;
+        }
+
+        @Override
+        public FileSet lineEndingHandling(LineEndingHandling lineEndingHandling) {
+            return this;
+        }
+    }
+}
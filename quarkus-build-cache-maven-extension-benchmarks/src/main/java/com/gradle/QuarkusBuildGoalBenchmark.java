@@ -0,0 +1,136 @@
+package com.gradle;
+
+import com.gradle.maven.extension.api.cache.BuildCacheApi;
+import com.gradle.maven.extension.api.cache.LocalBuildCache;
+import com.gradle.maven.extension.api.cache.MojoMetadataProvider;
+import com.gradle.maven.extension.api.cache.NormalizationProvider;
+import com.gradle.maven.extension.api.cache.RemoteBuildCache;
+import org.apache.maven.plugin.MojoExecution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the metadata provider for a Quarkus build goal execution: extension configuration, config dump and config check
+ * loading, comparison, cacheability checks and inputs / outputs registration.
+ * <ul>
+ *     <li>firstExecution: first Quarkus goal of the session, nothing is cached by the extension yet</li>
+ *     <li>nextExecution: the config files are already loaded, as for the next goals of the same module</li>
+ * </ul>
+ * Each invocation uses a provider of its own, so that the decisions buffered by the cache report don't pile up across invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuarkusBuildGoalBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int configKeys;
+
+    @Param({"50", "1000"})
+    int classpathEntries;
+
+    @Param({"fast-jar", "native"})
+    String packageType;
+
+    private SyntheticQuarkusProject project;
+    private MojoExecution mojoExecution;
+
+    @Setup
+    public void setup() {
+        project = SyntheticQuarkusProject.create(configKeys, classpathEntries, packageType, 1024);
+        mojoExecution = SyntheticQuarkusProject.quarkusMojoExecution("build");
+    }
+
+    @TearDown
+    public void tearDown() {
+        project.delete();
+    }
+
+    @Benchmark
+    public int firstExecution(Session session) {
+        return provideMetadata(session.provider);
+    }
+
+    @Benchmark
+    public int nextExecution(Session session) {
+        return provideMetadata(session.warmedUpProvider);
+    }
+
+    private int provideMetadata(MojoMetadataProvider provider) {
+        FakeMojoMetadataContext context = new FakeMojoMetadataContext(project.getSession(), project.getProject(), mojoExecution);
+        provider.provideMetadata(context);
+        return context.getDeclarations();
+    }
+
+    private static MojoMetadataProvider newProvider() {
+        CapturingBuildCacheApi buildCache = new CapturingBuildCacheApi();
+        new QuarkusBuildCache(null, null).configureBuildCache(buildCache);
+        return buildCache.mojoMetadataProvider;
+    }
+
+    /**
+     * Providers of a new session, created out of the measured time: a fresh one and one which already handled an execution of the module.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        private MojoMetadataProvider provider;
+        private MojoMetadataProvider warmedUpProvider;
+
+        @Setup(Level.Invocation)
+        public void setup(QuarkusBuildGoalBenchmark benchmark) {
+            provider = newProvider();
+            warmedUpProvider = newProvider();
+            benchmark.provideMetadata(warmedUpProvider);
+        }
+    }
+
+    private static final class CapturingBuildCacheApi implements BuildCacheApi {
+
+        private MojoMetadataProvider mojoMetadataProvider;
+
+        @Override
+        public LocalBuildCache getLocal() {
+            return null;
+        }
+
+        @Override
+        public RemoteBuildCache getRemote() {
+            return null;
+        }
+
+        @Override
+        public boolean isRequireClean() {
+            return false;
+        }
+
+        @Override
+        public void setRequireClean(boolean requireClean) {
+        }
+
+        @Override
+        public void registerMojoMetadataProvider(MojoMetadataProvider mojoMetadataProvider) {
+            this.mojoMetadataProvider = mojoMetadataProvider;
+        }
+
+        @Override
+        public void registerNormalizationProvider(NormalizationProvider normalizationProvider) {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.gradle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the steps deciding whether a Quarkus build goal is cacheable, for config dumps of increasing size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuarkusConfigBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int configKeys;
+
+    private SyntheticQuarkusProject project;
+    private PropertiesFileCache sessionPropertiesFileCache;
+    private QuarkusConfigRules configRules;
+    private Map<String, String> dumpProperties;
+    private Map<String, String> currentProperties;
+    private Map<String, String> changedProperties;
+
+    @Setup
+    public void setup() {
+        project = SyntheticQuarkusProject.create(configKeys, 0, QuarkusConfigKeys.PACKAGE_FAST_JAR, 0);
+        sessionPropertiesFileCache = new PropertiesFileCache();
+        configRules = QuarkusConfigRules.create(
+            Arrays.asList("quarkus.native.graalvm-home", "quarkus.native.java-home", "quarkus.extension-1.*"),
+            project.getBasedir(),
+            Collections.emptyList()
+        );
+        dumpProperties = sessionPropertiesFileCache.load(project.getDumpConfigFile());
+        currentProperties = sessionPropertiesFileCache.load(project.getCurrentConfigFile());
+        changedProperties = new HashMap<>(currentProperties);
+        changedProperties.put("quarkus.extension-2.property-2", "changed");
+    }
+
+    @TearDown
+    public void tearDown() {
+        project.delete();
+    }
+
+    @Benchmark
+    public Map<String, String> loadProperties() {
+        return new PropertiesFileCache().load(project.getDumpConfigFile());
+    }
+
+    @Benchmark
+    public Map<String, String> loadPropertiesCached() {
+        return sessionPropertiesFileCache.load(project.getDumpConfigFile());
+    }
+
+    @Benchmark
+    public boolean propertiesUnchanged() {
+        return QuarkusConfigDiff.compute(dumpProperties, currentProperties, configRules).isEmpty();
+    }
+
+    @Benchmark
+    public boolean propertiesChanged() {
+        return QuarkusConfigDiff.compute(dumpProperties, changedProperties, configRules).isEmpty();
+    }
+
+    @Benchmark
+    public String packageType() {
+        return QuarkusConfigKeys.forVersion(SyntheticQuarkusProject.QUARKUS_VERSION).getPackageType(dumpProperties);
+    }
+
+    @Benchmark
+    public String packageTypeQuarkus39() {
+        return QuarkusConfigKeys.forVersion("3.9.0").getPackageType(dumpProperties);
+    }
+}
@@ -0,0 +1,202 @@
+package com.gradle;
+
+import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
+import org.apache.maven.artifact.repository.MavenArtifactRepository;
+import org.apache.maven.artifact.repository.layout.DefaultRepositoryLayout;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystemSession;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Project laid out on disk as the Quarkus build goal leaves it: a config dump and a config check with the same
+ * synthetic Quarkus properties, and a compile classpath of jars located in a local repository.
+ * The Maven session has no user properties and points to that local repository.
+ */
+final class SyntheticQuarkusProject {
+
+    static final String QUARKUS_VERSION = "3.2.5.Final";
+
+    private final Path basedir;
+    private final File localRepository;
+    private final List<String> classpathElements;
+    private final MavenProject project;
+    private final MavenSession session;
+
+    private SyntheticQuarkusProject(Path basedir, File localRepository, List<String> classpathElements, MavenProject project, MavenSession session) {
+        this.basedir = basedir;
+        this.localRepository = localRepository;
+        this.classpathElements = classpathElements;
+        this.project = project;
+        this.session = session;
+    }
+
+    /**
+     * @param configKeys number of Quarkus properties in the config dump
+     * @param classpathEntries number of jars on the compile classpath
+     * @param packageType Quarkus package type, native builds are configured as in-container builds
+     * @param jarSize size in bytes of each jar
+     */
+    static SyntheticQuarkusProject create(int configKeys, int classpathEntries, String packageType, int jarSize) {
+        try {
+            Path basedir = Files.createTempDirectory("quarkus-benchmark");
+            File localRepository = basedir.resolve("repository").toFile();
+
+            List<String> properties = createProperties(configKeys, packageType, basedir);
+            write(basedir.resolve(".quarkus/quarkus-prod-config-dump"), properties);
+            write(basedir.resolve("target/quarkus-prod-config-check"), properties);
+
+            List<String> classpathElements = new ArrayList<>();
+            classpathElements.add(basedir.resolve("target/classes").toString());
+            Random random = new Random(classpathEntries);
+            byte[] content = new byte[jarSize];
+            for(int i = 0; i < classpathEntries; i++) {
+                File jar = new File(localRepository, "org/example/lib-" + i + "/1.0/lib-" + i + "-1.0.jar");
+                Files.createDirectories(jar.getParentFile().toPath());
+                random.nextBytes(content);
+                try (OutputStream outputStream = Files.newOutputStream(jar.toPath())) {
+                    outputStream.write(content);
+                }
+                classpathElements.add(jar.getAbsolutePath());
+            }
+
+            MavenProject project = createMavenProject(basedir, classpathElements);
+            return new SyntheticQuarkusProject(basedir, localRepository, Collections.unmodifiableList(classpathElements), project, createMavenSession(localRepository, project));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> createProperties(int configKeys, String packageType, Path basedir) {
+        List<String> properties = new ArrayList<>();
+        properties.add("quarkus.package.type=" + packageType);
+        if(QuarkusConfigKeys.PACKAGE_NATIVE.equals(packageType)) {
+            properties.add("quarkus.native.container-build=true");
+            properties.add("quarkus.native.builder-image=quay.io/quarkus/ubi-quarkus-mandrel-builder-image:jdk-17");
+        }
+        for(int i = properties.size(); i < configKeys; i++) {
+            // a mix of plain values and absolute paths, as found in real config dumps
+            String value = i % 10 == 0 ? basedir.resolve("src/main/resources/file-" + i).toString() : "value-" + i;
+            properties.add("quarkus.extension-" + (i % 50) + ".property-" + i + "=" + value.replace("\\", "\\\\"));
+        }
+        return properties;
+    }
+
+    private static void write(Path file, List<String> properties) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            for(String property : properties) {
+                writer.write(property);
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static MavenProject createMavenProject(Path basedir, List<String> classpathElements) {
+        MavenProject project = new MavenProject() {
+            @Override
+            public List<String> getCompileClasspathElements() {
+                return classpathElements;
+            }
+        };
+        project.setGroupId("org.example");
+        project.setArtifactId("quarkus-benchmark");
+        project.setVersion("1.0.0-SNAPSHOT");
+        project.setFile(basedir.resolve("pom.xml").toFile());
+
+        Build build = new Build();
+        build.setDirectory(basedir.resolve("target").toString());
+        build.setFinalName("quarkus-benchmark-1.0.0-SNAPSHOT");
+        project.setBuild(build);
+
+        return project;
+    }
+
+    /**
+     * All the MavenSession constructors of maven-core 3.9.0 are deprecated, this one being used by Maven itself.
+     */
+    @SuppressWarnings("deprecation")
+    private static MavenSession createMavenSession(File localRepository, MavenProject project) {
+        MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        request.setLocalRepository(new MavenArtifactRepository("local", localRepository.toURI().toString(), new DefaultRepositoryLayout(), new ArtifactRepositoryPolicy(), new ArtifactRepositoryPolicy()));
+        request.setSystemProperties(new Properties());
+
+        MavenSession session = new MavenSession(null, (RepositorySystemSession) null, request, new DefaultMavenExecutionResult());
+        session.setCurrentProject(project);
+        return session;
+    }
+
+    /**
+     * @return a quarkus-maven-plugin execution of the given goal
+     */
+    static MojoExecution quarkusMojoExecution(String goal) {
+        PluginDescriptor pluginDescriptor = new PluginDescriptor();
+        pluginDescriptor.setGroupId("io.quarkus");
+        pluginDescriptor.setArtifactId("quarkus-maven-plugin");
+        pluginDescriptor.setVersion(QUARKUS_VERSION);
+
+        MojoDescriptor mojoDescriptor = new MojoDescriptor();
+        mojoDescriptor.setGoal(goal);
+        mojoDescriptor.setPluginDescriptor(pluginDescriptor);
+
+        return new MojoExecution(mojoDescriptor, "default");
+    }
+
+    File getDumpConfigFile() {
+        return basedir.resolve(".quarkus/quarkus-prod-config-dump").toFile();
+    }
+
+    File getCurrentConfigFile() {
+        return basedir.resolve("target/quarkus-prod-config-check").toFile();
+    }
+
+    File getBasedir() {
+        return basedir.toFile();
+    }
+
+    File getLocalRepository() {
+        return localRepository;
+    }
+
+    List<String> getClasspathElements() {
+        return classpathElements;
+    }
+
+    MavenProject getProject() {
+        return project;
+    }
+
+    MavenSession getSession() {
+        return session;
+    }
+
+    void delete() {
+        try (Stream<Path> files = Files.walk(basedir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.gradle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * On-disk index of classpath entry content hashes (path + size + modification time -> SHA-256), shared across builds.
+ * Only new or modified entries are hashed, large entries through memory-mapped reads.
+ */
+final class ClasspathFingerprintIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClasspathFingerprintIndex.class);
+
+    // Files larger than this are read through a memory mapping
+    private static final long MEMORY_MAPPED_THRESHOLD = 1024 * 1024;
+
+    // Size of the memory-mapped regions
+    private static final long MEMORY_MAPPED_REGION_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEPARATOR = "\t";
+
+    private final File indexFile;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    private ClasspathFingerprintIndex(File indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * @param indexFile index location, created on first save if missing
+     * @return the index with the entries of the file
+     */
+    static ClasspathFingerprintIndex load(File indexFile) {
+        ClasspathFingerprintIndex index = new ClasspathFingerprintIndex(indexFile);
+
+        if(indexFile.isFile()) {
+            try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    // path, size, modification time, hash
+                    String[] fields = line.split(SEPARATOR);
+                    if(fields.length == 4) {
+                        index.entries.put(fields[0], new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]));
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                LOGGER.warn("Classpath index " + indexFile + " can't be read, entries will be hashed again", e);
+                index.entries.clear();
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * @param classpathElements classpath entries, in classpath order
+     * @param indexed entries whose content is part of the digest, the others only contribute their name and position
+     * @return digest of the names and content hashes of the entries
+     */
+    String digest(List<String> classpathElements, Predicate<File> indexed) {
+        MessageDigest digest = newDigest();
+        for(String classpathElement : classpathElements) {
+            File file = new File(classpathElement);
+            digest.update(file.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ':');
+            if(indexed.test(file)) {
+                digest.update(hash(file).getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @return content hash of the file, computed only if the file is not indexed or has been modified
+     */
+    String hash(File file) {
+        long size = file.length();
+        long lastModified = file.lastModified();
+
+        Entry entry = entries.get(file.getAbsolutePath());
+        if(entry != null && entry.size == size && entry.lastModified == lastModified) {
+            return entry.hash;
+        }
+
+        String hash = computeHash(file);
+        entries.put(file.getAbsolutePath(), new Entry(size, lastModified, hash));
+        dirty = true;
+
+        return hash;
+    }
+
+    /**
+     * Writes the index if new entries have been hashed since it was loaded, entries of deleted files are dropped.
+     * Called once at the end of the session: the entries written meanwhile by another build are merged, and the file is
+     * written to a temporary file then renamed atomically so that concurrent builds never read a partial index.
+     */
+    synchronized void save() {
+        if(!dirty) {
+            return;
+        }
+
+        try {
+            load(indexFile).entries.forEach(entries::putIfAbsent);
+            Files.createDirectories(indexFile.getParentFile().toPath());
+            File tmpFile = File.createTempFile(indexFile.getName(), ".tmp", indexFile.getParentFile());
+            try (BufferedWriter writer = Files.newBufferedWriter(tmpFile.toPath(), StandardCharsets.UTF_8)) {
+                entries.keySet().removeIf(path -> !new File(path).isFile());
+                for(Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    writer.write(entry.getKey() + SEPARATOR + entry.getValue().size + SEPARATOR + entry.getValue().lastModified + SEPARATOR + entry.getValue().hash);
+                    writer.newLine();
+                }
+            }
+            Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            LOGGER.warn("Classpath index " + indexFile + " can't be written", e);
+        }
+    }
+
+    private static String computeHash(File file) {
+        MessageDigest digest = newDigest();
+
+        try {
+            if(file.length() > MEMORY_MAPPED_THRESHOLD) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    long size = channel.size();
+                    for(long position = 0; position < size; position += MEMORY_MAPPED_REGION_SIZE) {
+                        digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MEMORY_MAPPED_REGION_SIZE, size - position)));
+                    }
+                }
+            } else {
+                try (InputStream input = Files.newInputStream(file.toPath())) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while((read = input.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Classpath entry " + file + " can't be read", e);
+        }
+
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for(byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static final class Entry {
+
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        private Entry(long size, long lastModified, String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
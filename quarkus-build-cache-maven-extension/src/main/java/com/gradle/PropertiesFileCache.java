@@ -0,0 +1,87 @@
+package com.gradle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Session-scoped cache of parsed property files.
+ * Files are keyed by canonical path and considered up-to-date as long as their modification time and size are unchanged,
+ * so that concurrent mojo executions share a single parse per file.
+ */
+final class PropertiesFileCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PropertiesFileCache.class);
+
+    private final ConcurrentMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * @param propertyFile file to load
+     * @return immutable snapshot of the file properties, empty if the file does not exist
+     */
+    Map<String, String> load(File propertyFile) {
+        if(!propertyFile.isFile()) {
+            LOGGER.debug(propertyFile + " not found");
+            return Collections.emptyMap();
+        }
+
+        long lastModified = propertyFile.lastModified();
+        long size = propertyFile.length();
+
+        return snapshots.compute(canonicalPath(propertyFile), (path, snapshot) ->
+            snapshot != null && snapshot.isUpToDate(lastModified, size) ? snapshot : new Snapshot(lastModified, size, parse(propertyFile))
+        ).properties;
+    }
+
+    private static String canonicalPath(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static Map<String, String> parse(File propertyFile) {
+        Properties props = new Properties();
+
+        try (InputStream input = Files.newInputStream(propertyFile.toPath())) {
+            props.load(input);
+        } catch (IOException e) {
+            LOGGER.error("Error while loading " + propertyFile, e);
+        }
+
+        Map<String, String> properties = new HashMap<>(props.size() * 4 / 3 + 1);
+        for(String key : props.stringPropertyNames()) {
+            properties.put(key, props.getProperty(key));
+        }
+
+        return Collections.unmodifiableMap(properties);
+    }
+
+    private static final class Snapshot {
+
+        private final long lastModified;
+        private final long size;
+        private final Map<String, String> properties;
+
+        private Snapshot(long lastModified, long size, Map<String, String> properties) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.properties = properties;
+        }
+
+        private boolean isUpToDate(long lastModified, long size) {
+            return this.lastModified == lastModified && this.size == size;
+        }
+    }
+}
@@ -2,260 +2,897 @@ package com.gradle;
 
 import com.gradle.maven.extension.api.cache.BuildCacheApi;
 import com.gradle.maven.extension.api.cache.MojoMetadataProvider;
+import com.gradle.maven.extension.api.scan.BuildScanApi;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.toolchain.ToolchainManager;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
-import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Caching instructions for the Quarkus build goal.
+ * An instance is scoped to a Maven session, parsed files and extension configurations are shared by its mojo executions.
  */
 final class QuarkusBuildCache {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QuarkusBuildCache.class);
 
-    // Quarkus' configuration keys
-    private static final List<String> QUARKUS_CONFIG_KEY_NATIVE_CONTAINER_BUILD = Arrays.asList("quarkus.native.container-build", "quarkus.native.remote-container-build");
-    private static final String QUARKUS_CONFIG_KEY_NATIVE_BUILDER_IMAGE = "quarkus.native.builder-image";
-    private static final String QUARKUS_CONFIG_KEY_PACKAGE_TYPE = "quarkus.package.type";
-    private static final String QUARKUS_CONFIG_KEY_GRAALVM_HOME = "quarkus.native.graalvm-home";
-    private static final String QUARKUS_CONFIG_KEY_JAVA_HOME = "quarkus.native.java-home";
-    private static final String PACKAGE_NATIVE = "native";
+    private final PropertiesFileCache propertiesFileCache = new PropertiesFileCache();
 
-    // Quarkus' cacheable package types
-    private static final List<String> QUARKUS_CACHEABLE_PACKAGE_TYPES = Arrays.asList("jar", "legacy-jar", "uber-jar", PACKAGE_NATIVE);
+    private final ToolchainFingerprints toolchainFingerprints;
 
-    // Quarkus' properties which are considered as file inputs
-    private static final List<String> QUARKUS_KEYS_AS_FILE_INPUTS = Arrays.asList("quarkus.docker.dockerfile-native-path", "quarkus.docker.dockerfile-jvm-path", "quarkus.openshift.jvm-dockerfile", "quarkus.openshift.native-dockerfile");
+    private final QuarkusCacheReport cacheReport;
 
-    // Quarkus' properties which should be ignored (the JDK / GraalVM version are extra inputs)
-    private static final List<String> QUARKUS_IGNORED_PROPERTIES = Arrays.asList(QUARKUS_CONFIG_KEY_GRAALVM_HOME, QUARKUS_CONFIG_KEY_JAVA_HOME);
+    // Classpath index per index file
+    private final ConcurrentMap<File, ClasspathFingerprintIndex> classpathIndexes = new ConcurrentHashMap<>();
 
-    // Inner class to encapsulate Quarkus extension configuration
-    private static final class QuarkusExtensionConfiguration {
+    // Extension configuration per project base directory
+    private final ConcurrentMap<File, QuarkusExtensionConfiguration> extensionConfigurations = new ConcurrentHashMap<>();
 
-        // Environment variable key to disable caching
-        private static final String GRADLE_QUARKUS_KEY_CACHE_ENABLED = "GRADLE_QUARKUS_CACHE_ENABLED";
+    // Quarkus properties resolved from the configuration sources per config dump file, when the config check file is missing
+    private final ConcurrentMap<File, Map<String, String>> resolvedProperties = new ConcurrentHashMap<>();
 
-        // Environment variable or Maven property key to define extension configuration file location
-        private static final String GRADLE_QUARKUS_KEY_CONFIG_FILE = "GRADLE_QUARKUS_EXTENSION_CONFIG_FILE";
+    // Resolved config recorded per config dump file, written once the session ends if the config dump has been written meanwhile
+    private final ConcurrentMap<File, ResolvedConfigRecord> resolvedConfigRecords = new ConcurrentHashMap<>();
 
-        // Extension configuration build profile key
-        private static final String GRADLE_QUARKUS_KEY_BUILD_PROFILE = "BUILD_PROFILE";
+    private static final String QUARKUS_MAVEN_PLUGIN = "quarkus-maven-plugin";
 
-        // Extension configuration default profile
-        private static final String GRADLE_QUARKUS_DEFAULT_BUILD_PROFILE = "prod";
+    // Quarkus' goals
+    private static final String QUARKUS_GOAL_BUILD = "build";
+    private static final String QUARKUS_GOAL_GENERATE_CODE = "generate-code";
+    private static final String QUARKUS_GOAL_GENERATE_CODE_TESTS = "generate-code-tests";
+    private static final List<String> QUARKUS_GOALS_GENERATE_CODE = Arrays.asList(QUARKUS_GOAL_GENERATE_CODE, QUARKUS_GOAL_GENERATE_CODE_TESTS);
 
-        // Extension configuration dump config file prefix
-        private static final String GRADLE_QUARKUS_KEY_DUMP_CONFIG_PREFIX = "DUMP_CONFIG_PREFIX";
+    // Surefire plugin and goal running the @QuarkusTest tests
+    private static final String SUREFIRE_MAVEN_PLUGIN = "maven-surefire-plugin";
+    private static final String SUREFIRE_GOAL_TEST = "test";
 
-        // Extension configuration default dump config file prefix
-        private static final String GRADLE_QUARKUS_DEFAULT_DUMP_CONFIG_PREFIX = "quarkus";
+    // Failsafe plugin and goal running the integration tests against the packaged application
+    private static final String FAILSAFE_MAVEN_PLUGIN = "maven-failsafe-plugin";
+    private static final String FAILSAFE_GOAL_INTEGRATION_TEST = "integration-test";
 
-        // Extension configuration dump config file suffix
-        private static final String GRADLE_QUARKUS_KEY_DUMP_CONFIG_SUFFIX = "DUMP_CONFIG_SUFFIX";
+    // Environment variables read by Quarkus contain this token (QUARKUS_..., _TEST_QUARKUS_..., ...)
+    private static final String QUARKUS_ENVIRONMENT_VARIABLE_TOKEN = "QUARKUS_";
 
-        // Extension configuration default dump config file suffix
-        private static final String GRADLE_QUARKUS_DEFAULT_DUMP_CONFIG_SUFFIX = "config-dump";
+    // Configuration files read by Quarkus from the working directory, not part of the test classpath
+    private static final List<String> QUARKUS_WORKING_DIRECTORY_CONFIG_FILES = Arrays.asList(".env", "config/application.properties");
 
-        private final Properties configuration = new Properties();
+    // Quarkus' code generation providers (provider id -> input directory under src/main or src/test)
+    private static final Map<String, String> QUARKUS_CODEGEN_PROVIDERS = new LinkedHashMap<>();
+    static {
+        QUARKUS_CODEGEN_PROVIDERS.put("grpc", "proto");
+        QUARKUS_CODEGEN_PROVIDERS.put("avsc", "avro");
+        QUARKUS_CODEGEN_PROVIDERS.put("avpr", "avro");
+        QUARKUS_CODEGEN_PROVIDERS.put("avdl", "avro");
+    }
 
-        private QuarkusExtensionConfiguration(MojoMetadataProvider.Context context) {
-            // loading default properties
-            String isQuarkusCacheEnabledFromEnv = System.getenv(GRADLE_QUARKUS_KEY_CACHE_ENABLED);
-            configuration.setProperty(GRADLE_QUARKUS_KEY_CACHE_ENABLED, isQuarkusCacheEnabledFromEnv != null ? isQuarkusCacheEnabledFromEnv : "");
-            configuration.setProperty(GRADLE_QUARKUS_KEY_BUILD_PROFILE, GRADLE_QUARKUS_DEFAULT_BUILD_PROFILE);
-            configuration.setProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_PREFIX, GRADLE_QUARKUS_DEFAULT_DUMP_CONFIG_PREFIX);
-            configuration.setProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_SUFFIX, GRADLE_QUARKUS_DEFAULT_DUMP_CONFIG_SUFFIX);
+    // Quarkus' configuration keys
+    private static final List<String> QUARKUS_CONFIG_KEY_NATIVE_CONTAINER_BUILD = Arrays.asList("quarkus.native.container-build", "quarkus.native.remote-container-build");
+    private static final String QUARKUS_CONFIG_KEY_NATIVE_BUILDER_IMAGE = "quarkus.native.builder-image";
+    private static final String QUARKUS_CONFIG_KEY_PROFILE = "quarkus.profile";
+    private static final String QUARKUS_CONFIG_KEY_OUTPUT_DIRECTORY = "quarkus.package.output-directory";
+    private static final String QUARKUS_CONFIG_KEY_OUTPUT_NAME = "quarkus.package.output-name";
+    private static final String QUARKUS_CONFIG_KEY_RUNNER_SUFFIX = "quarkus.package.runner-suffix";
+    private static final String QUARKUS_CONFIG_KEY_CONTAINER_IMAGE_BUILD = "quarkus.container-image.build";
+    private static final String QUARKUS_CONFIG_KEY_CONTAINER_IMAGE_PUSH = "quarkus.container-image.push";
+    private static final String QUARKUS_CONFIG_KEY_CONTAINER_IMAGE_BUILDER = "quarkus.container-image.builder";
 
-            // loading optional overridden locations
-            String extensionConfigurationFileFromEnv = System.getenv(GRADLE_QUARKUS_KEY_CONFIG_FILE);
-            String extensionConfigurationFileFromMaven =
-                context.getProject().getProperties().getProperty(
-                    GRADLE_QUARKUS_KEY_CONFIG_FILE.toLowerCase().replace("_","."),
-                    ""
-                );
+    // Prefix of the Jib container image builder configuration keys
+    private static final String QUARKUS_CONFIG_PREFIX_JIB = "quarkus.jib.";
 
-            if(extensionConfigurationFileFromEnv != null && !extensionConfigurationFileFromEnv.isEmpty()) {
-                // override default properties from configuration file defined in the environment
-                configuration.putAll(loadProperties(context, extensionConfigurationFileFromEnv));
-            } else if(!extensionConfigurationFileFromMaven.isEmpty()) {
-                // override default properties from configuration file defined as Maven property
-                configuration.putAll(loadProperties(context, extensionConfigurationFileFromMaven));
-            }
-        }
+    // Container image builder producing reproducible images
+    private static final String QUARKUS_CONTAINER_IMAGE_BUILDER_JIB = "jib";
 
-        /**
-         * @return whether Quarkus cache is enabled or not
-         */
-        private boolean isQuarkusCacheEnabled() {
-            // Quarkus cache is enabled by default
-            return !Boolean.FALSE.toString().equals(configuration.get(GRADLE_QUARKUS_KEY_CACHE_ENABLED));
-        }
+    // Metadata files written by Jib next to the packaged application
+    private static final List<String> QUARKUS_JIB_METADATA_FILES = Arrays.asList("jib-image.id", "jib-image.digest");
 
-        /**
-         * This file contains Quarkus' properties used to configure the application.
-         * This file is generated by the Quarkus build goal.
-         *
-         * @return dump config file name
-         */
-        private String getDumpConfigFileName() {
-            return String.format(".quarkus/%s-%s-%s",
-                configuration.getProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_PREFIX),
-                configuration.getProperty(GRADLE_QUARKUS_KEY_BUILD_PROFILE),
-                configuration.getProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_SUFFIX)
-            );
-        }
+    // Environment variable selecting the Quarkus profile
+    private static final String QUARKUS_ENV_PROFILE = "QUARKUS_PROFILE";
 
-        /**
-         * This file contains Quarkus' properties values when process-resources phase is executed.
-         * It is generated by the Quarkus track-config-changes goal.
-         *
-         * @return config check file name
-         */
-        private String getCurrentConfigFileName() {
-            return String.format("target/%s-%s-config-check",
-                configuration.getProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_PREFIX),
-                configuration.getProperty(GRADLE_QUARKUS_KEY_BUILD_PROFILE)
-            );
-        }
+    // Quarkus profiles of the tests: @QuarkusTest runs with the test profile, @QuarkusIntegrationTest launches the packaged application with the prod one
+    private static final String QUARKUS_CONFIG_KEY_TEST_PROFILE = "quarkus.test.profile";
+    private static final String QUARKUS_DEFAULT_TEST_PROFILE = "test";
+    private static final String QUARKUS_CONFIG_KEY_INTEGRATION_TEST_PROFILE = "quarkus.test.integration-test-profile";
+    private static final String QUARKUS_DEFAULT_INTEGRATION_TEST_PROFILE = "prod";
+
+    // Surefire / failsafe parameter holding the system properties of the tests
+    private static final String TEST_SYSTEM_PROPERTIES_PARAMETER = "systemPropertyVariables";
+
+    // Quarkus build goal parameters holding additional build properties
+    private static final List<String> QUARKUS_GOAL_PROPERTIES_PARAMETERS = Arrays.asList("properties", "systemProperties");
+
+    // Build directory, outputs are resolved against it
+    private static final String QUARKUS_BUILD_DIRECTORY = "target";
+
+    // Default runner suffix of the packaged application
+    private static final String QUARKUS_DEFAULT_RUNNER_SUFFIX = "-runner";
+
+    // AppCDS archive generated by the jar package types
+    private static final String QUARKUS_APPCDS_FILE_NAME = "app-cds.jsa";
+    private static final List<String> QUARKUS_APPCDS_PACKAGE_TYPES = Arrays.asList(QuarkusConfigKeys.PACKAGE_JAR, QuarkusConfigKeys.PACKAGE_FAST_JAR, QuarkusConfigKeys.PACKAGE_LEGACY_JAR, QuarkusConfigKeys.PACKAGE_UBER_JAR);
+
+    // Directory where the native-sources package type generates the native-image sources and arguments
+    private static final String QUARKUS_NATIVE_SOURCES_DIRECTORY_NAME = "native-sources";
+
+    // Quarkus' cacheable package types
+    private static final List<String> QUARKUS_CACHEABLE_PACKAGE_TYPES = Arrays.asList(
+        QuarkusConfigKeys.PACKAGE_JAR,
+        QuarkusConfigKeys.PACKAGE_FAST_JAR,
+        QuarkusConfigKeys.PACKAGE_LEGACY_JAR,
+        QuarkusConfigKeys.PACKAGE_UBER_JAR,
+        QuarkusConfigKeys.PACKAGE_NATIVE,
+        QuarkusConfigKeys.PACKAGE_NATIVE_SOURCES
+    );
+
+    // Quarkus' properties which are considered as file inputs
+    private static final List<String> QUARKUS_KEYS_AS_FILE_INPUTS = Arrays.asList("quarkus.docker.dockerfile-native-path", "quarkus.docker.dockerfile-jvm-path", "quarkus.openshift.jvm-dockerfile", "quarkus.openshift.native-dockerfile");
+
+    QuarkusBuildCache(ToolchainManager toolchainManager, BuildScanApi buildScan) {
+        this.toolchainFingerprints = new ToolchainFingerprints(propertiesFileCache, toolchainManager);
+        this.cacheReport = new QuarkusCacheReport(buildScan);
     }
 
     void configureBuildCache(BuildCacheApi buildCache) {
         buildCache.registerMojoMetadataProvider(context -> {
-            context.withPlugin("quarkus-maven-plugin", () -> {
-                if("build".equals(context.getMojoExecution().getGoal())) {
-                    QuarkusExtensionConfiguration extensionConfiguration = new QuarkusExtensionConfiguration(context);
+            context.withPlugin(QUARKUS_MAVEN_PLUGIN, () -> {
+                String goal = context.getMojoExecution().getGoal();
+                if(QUARKUS_GOAL_BUILD.equals(goal) || QUARKUS_GOALS_GENERATE_CODE.contains(goal)) {
+                    QuarkusExtensionConfiguration extensionConfiguration = getExtensionConfiguration(context);
 
-                    if(extensionConfiguration.isQuarkusCacheEnabled()) {
+                    if(!extensionConfiguration.isQuarkusCacheEnabled()) {
+                        LOGGER.info("Quarkus caching is disabled (gradle.quarkus.cache.enabled=false)");
+                        recordCacheDisabled(context);
+                    } else if(QUARKUS_GOAL_BUILD.equals(goal)) {
                         LOGGER.info("Configuring caching for Quarkus build");
                         configureQuarkusBuildGoal(context, extensionConfiguration);
+                    } else {
+                        LOGGER.info("Configuring caching for Quarkus " + goal);
+                        configureQuarkusGenerateCodeGoal(context, QUARKUS_GOAL_GENERATE_CODE_TESTS.equals(goal), extensionConfiguration);
+                    }
+                }
+            });
+            context.withPlugin(SUREFIRE_MAVEN_PLUGIN, () -> {
+                if(SUREFIRE_GOAL_TEST.equals(context.getMojoExecution().getGoal()) && isQuarkusProject(context)) {
+                    QuarkusExtensionConfiguration extensionConfiguration = getExtensionConfiguration(context);
+                    if(extensionConfiguration.isQuarkusCacheEnabled()) {
+                        LOGGER.info("Configuring caching for Quarkus tests");
+                        configureQuarkusTestGoal(context, extensionConfiguration);
+                    }
+                }
+            });
+            context.withPlugin(FAILSAFE_MAVEN_PLUGIN, () -> {
+                if(FAILSAFE_GOAL_INTEGRATION_TEST.equals(context.getMojoExecution().getGoal()) && isQuarkusProject(context)) {
+                    QuarkusExtensionConfiguration extensionConfiguration = getExtensionConfiguration(context);
+                    if(extensionConfiguration.isQuarkusCacheEnabled()) {
+                        LOGGER.info("Configuring caching for Quarkus integration tests");
+                        configureQuarkusIntegrationTestGoal(context, extensionConfiguration);
+                    }
+                }
+            });
+            context.withPlugin("exec-maven-plugin", () -> {
+                QuarkusExtensionConfiguration extensionConfiguration = getExtensionConfiguration(context);
+                if(extensionConfiguration.getNativeImageExecutionId().equals(context.getMojoExecution().getExecutionId())) {
+                    if(extensionConfiguration.isQuarkusCacheEnabled()) {
+                        LOGGER.info("Configuring caching for Quarkus native-image build");
+                        configureNativeImageExecution(context, extensionConfiguration);
                     } else {
                         LOGGER.info("Quarkus caching is disabled (gradle.quarkus.cache.enabled=false)");
+                        recordCacheDisabled(context);
                     }
                 }
             });
         });
     }
 
+    /**
+     * Publishes the Quarkus build goal timings and output sizes to the build scan once the goal is executed,
+     * and writes the state shared by the mojo executions once the session ends.
+     */
+    void configureBuildMetrics(MavenExecutionRequest request) {
+        request.setExecutionListener(new QuarkusBuildMetricsListener(request.getExecutionListener(), cacheReport, this::buildSucceeded, this::sessionEnded));
+    }
+
+    /**
+     * Records whether the container image tarball has been written by the Quarkus build goal, the goal being cacheable
+     * only once it has: the tarball location is set in the extension configuration, not read from the Quarkus configuration,
+     * and the image is otherwise loaded into a Docker daemon or pushed, which a cache hit would skip.
+     * A tarball older than an executed goal has not been written by it, a tarball loaded from the cache has.
+     */
+    private void buildSucceeded(QuarkusCacheDecision decision, long startTime) {
+        File tarball = decision.getContainerImageTarball();
+        if(tarball == null) {
+            return;
+        }
+
+        File recordFile = decision.getContainerImageRecordFile();
+        boolean written = tarball.isFile()
+            && (!decision.isExecutedSince(startTime) || tarball.lastModified() >= startTime - QuarkusCacheDecision.MODIFICATION_TIME_TOLERANCE_MILLIS);
+        try {
+            if(written) {
+                Files.write(recordFile.toPath(), Collections.singletonList(tarball.getPath()), StandardCharsets.UTF_8);
+            } else {
+                LOGGER.warn("Quarkus container image tarball " + tarball + " was not written by the build, the goal is not cacheable until it is");
+                Files.deleteIfExists(recordFile.toPath());
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Quarkus container image record " + recordFile + " can't be written", e);
+        }
+    }
+
+    /**
+     * The classpath indexes and the cache report are written once all the mojo executions are done, as they are shared by the parallel ones (-T),
+     * as well as the resolved config of the config dumps written by the session.
+     */
+    private void sessionEnded() {
+        classpathIndexes.values().forEach(ClasspathFingerprintIndex::save);
+        resolvedConfigRecords.forEach((dumpConfigFile, record) -> record.save(dumpConfigFile, propertiesFileCache));
+        cacheReport.publish();
+    }
+
+    private QuarkusExtensionConfiguration getExtensionConfiguration(MojoMetadataProvider.Context context) {
+        return extensionConfigurations.computeIfAbsent(context.getProject().getBasedir(), basedir -> new QuarkusExtensionConfiguration(context, propertiesFileCache));
+    }
+
+    private void recordCacheDisabled(MojoMetadataProvider.Context context) {
+        QuarkusCacheDecision decision = new QuarkusCacheDecision(context);
+        decision.notCacheable(QuarkusCacheDecision.CHECK_CACHE_DISABLED);
+        recordDecision(context, decision);
+    }
+
+    private void recordDecision(MojoMetadataProvider.Context context, QuarkusCacheDecision decision) {
+        cacheReport.record(new File(context.getProject().getBuild().getDirectory()), decision);
+    }
+
     private void configureQuarkusBuildGoal(MojoMetadataProvider.Context context, QuarkusExtensionConfiguration extensionConfiguration) {
+        QuarkusCacheDecision decision = new QuarkusCacheDecision(context);
+        String profile = getBuildProfile(context, extensionConfiguration);
+        decision.setProfile(profile);
+        getResolvedConfigRecord(context, profile, extensionConfiguration);
+
         // Load Quarkus build properties
-        Properties quarkusBuildProperties = loadProperties(context, extensionConfiguration.getDumpConfigFileName());
+        Map<String, String> quarkusBuildProperties = decision.time(QuarkusCacheDecision.PHASE_LOAD, () -> loadProperties(context, extensionConfiguration.getDumpConfigFileName(profile)));
+
+        String packageType = getConfigKeys(context).getPackageType(quarkusBuildProperties);
+        decision.setPackageType(packageType);
+        decision.setDumpConfigFile(resolve(context, extensionConfiguration.getDumpConfigFileName(profile)));
+        if(isContainerImageBuild(quarkusBuildProperties) && isJibContainerImageBuilder(quarkusBuildProperties) && !extensionConfiguration.getContainerImageTarball().isEmpty()) {
+            decision.setContainerImage(resolve(context, extensionConfiguration.getContainerImageTarball()), resolve(context, extensionConfiguration.getContainerImageRecordFileName(profile)));
+        }
 
         // Check required configuration
-        if(isQuarkusBuildCacheable(context, quarkusBuildProperties, extensionConfiguration)) {
-            configureInputs(context, quarkusBuildProperties);
-            configureOutputs(context);
+        if(isQuarkusBuildCacheable(context, profile, quarkusBuildProperties, packageType, extensionConfiguration, decision)) {
+            decision.time(QuarkusCacheDecision.PHASE_INPUTS, () -> {
+                configureInputs(context, profile, quarkusBuildProperties, packageType, extensionConfiguration);
+                configureOutputs(context, quarkusBuildProperties, packageType, extensionConfiguration, decision);
+            });
         } else {
             LOGGER.info("Caching not possible for Quarkus goal");
         }
+
+        recordDecision(context, decision);
     }
 
-    private static Properties loadProperties(MojoMetadataProvider.Context context, String propertyFile) {
-        Properties props = new Properties();
-        File configFile = new File(context.getProject().getBasedir().getAbsolutePath(), propertyFile);
+    /**
+     * The native-sources package type splits a native build in 2 stages: the Quarkus build goal generates the
+     * native-image sources and arguments, then the native-image compilation is run by an exec-maven-plugin execution.
+     * The latter is keyed on the exact content of the native-sources, so that it is reused as long as the Quarkus build
+     * produces the same native-image inputs.
+     */
+    private void configureNativeImageExecution(MojoMetadataProvider.Context context, QuarkusExtensionConfiguration extensionConfiguration) {
+        QuarkusCacheDecision decision = new QuarkusCacheDecision(context);
+        String profile = getBuildProfile(context, extensionConfiguration);
+        decision.setProfile(profile);
+        Map<String, String> quarkusBuildProperties = decision.time(QuarkusCacheDecision.PHASE_LOAD, () -> loadProperties(context, extensionConfiguration.getDumpConfigFileName(profile)));
 
-        if(configFile.exists()) {
-            try (InputStream input = new FileInputStream(configFile)) {
-                props.load(input);
-            } catch (IOException e) {
-                LOGGER.error("Error while loading " + propertyFile, e);
+        String packageType = getConfigKeys(context).getPackageType(quarkusBuildProperties);
+        decision.setPackageType(packageType);
+        decision.setDumpConfigFile(resolve(context, extensionConfiguration.getDumpConfigFileName(profile)));
+        if(!QuarkusConfigKeys.PACKAGE_NATIVE_SOURCES.equals(packageType)) {
+            LOGGER.info("Caching not possible for native-image build, Quarkus package type is not " + QuarkusConfigKeys.PACKAGE_NATIVE_SOURCES);
+            decision.notCacheable(QuarkusCacheDecision.CHECK_PACKAGE_TYPE_NOT_CACHEABLE, Collections.singletonList(packageType));
+            recordDecision(context, decision);
+            return;
+        }
+
+        if(!isInContainerBuild(quarkusBuildProperties) && !getGraalVmFingerprint(context, profile).isPresent()) {
+            LOGGER.info("Caching not possible for native-image build, it is not in-container and GraalVM version can't be determined");
+            context.outputs(outputs -> outputs.notCacheableBecause("the GraalVM running native-image can't be determined"));
+            decision.notCacheable(QuarkusCacheDecision.CHECK_NATIVE_TOOLCHAIN_NOT_FIXED, Collections.singletonList("graalvm"));
+            recordDecision(context, decision);
+            return;
+        }
+
+        decision.time(QuarkusCacheDecision.PHASE_INPUTS, () -> configureNativeImageInputsAndOutputs(context, profile, quarkusBuildProperties));
+        recordDecision(context, decision);
+    }
+
+    private void configureNativeImageInputsAndOutputs(MojoMetadataProvider.Context context, String profile, Map<String, String> quarkusBuildProperties) {
+        String nativeSourcesDirectory = getOutputDirectory(quarkusBuildProperties) + "/" + QUARKUS_NATIVE_SOURCES_DIRECTORY_NAME;
+        String runnerSuffix = getRunnerSuffix(quarkusBuildProperties);
+        String quarkusExeFileName = nativeSourcesDirectory + "/" + getOutputName(context, quarkusBuildProperties) + runnerSuffix;
+
+        context.inputs(inputs -> {
+            addOsInputs(inputs);
+            inputs.property("quarkusNativeBuilderImage", quarkusBuildProperties.getOrDefault(QUARKUS_CONFIG_KEY_NATIVE_BUILDER_IMAGE, ""));
+            if(!isInContainerBuild(quarkusBuildProperties)) {
+                // native-image is run from the local GraalVM, its version changes the executable as much as the sources
+                inputs.property("graalVmFingerprint", getGraalVmFingerprint(context, profile).orElse(""));
             }
-        } else {
-            LOGGER.debug(propertyFile + " not found");
+            inputs.fileSet("quarkusNativeSources", resolve(context, nativeSourcesDirectory), fileSet -> fileSet
+                .exclude("*" + runnerSuffix)
+                .normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.RELATIVE_PATH));
+            inputs
+                .properties("executable", "arguments", "commandlineArgs", "environmentVariables", "environmentScript", "workingDirectory", "successCodes", "skip", "toolchain", "toolchainJavaHomeEnvName", "classpathScope", "longClasspath", "longModulepath", "forceJava", "addResourcesToClasspath", "addOutputToClasspath")
+                .ignore("project", "session", "mojoExecution", "basedir", "outputFile", "inheritIo", "async", "asyncDestroyOnShutdown", "useMavenLogger", "quietLogs", "pluginDependencies", "executableDependency", "sourceRoot", "testSourceRoot");
+        });
+
+        context.outputs(outputs -> {
+            outputs.cacheable("the native-image compilation is CPU-bound with well-defined inputs and outputs");
+            outputs.file("quarkusExe", quarkusExeFileName);
+        });
+    }
+
+    /**
+     * The surefire test goal is already cacheable, the test classpath being one of its inputs. Tests booting a Quarkus application
+     * (@QuarkusTest) also depend on the Quarkus configuration and on sources which are not on the classpath (environment variables,
+     * configuration files of the working directory), they are added as extra inputs so that unchanged test suites are restored from the cache.
+     * <p>
+     * Tests run with the test profile, keyed on its current configuration: the config check file of the profile, or the properties of
+     * its config dump (written by the previous test run) resolved from the configuration sources. The goal is not cacheable otherwise.
+     */
+    private void configureQuarkusTestGoal(MojoMetadataProvider.Context context, QuarkusExtensionConfiguration extensionConfiguration) {
+        QuarkusCacheDecision decision = new QuarkusCacheDecision(context);
+        String profile = getTestProperty(context, QUARKUS_CONFIG_KEY_TEST_PROFILE, QUARKUS_DEFAULT_TEST_PROFILE);
+        decision.setProfile(profile);
+        decision.setDumpConfigFile(resolve(context, extensionConfiguration.getDumpConfigFileName(profile)));
+        getResolvedConfigRecord(context, profile, extensionConfiguration);
+
+        Map<String, String> quarkusTestProperties = decision.time(QuarkusCacheDecision.PHASE_LOAD, () -> loadProperties(context, extensionConfiguration.getCurrentConfigFileName(profile)));
+        if(quarkusTestProperties.isEmpty()) {
+            Map<String, String> quarkusDumpProperties = decision.time(QuarkusCacheDecision.PHASE_LOAD, () -> loadProperties(context, extensionConfiguration.getDumpConfigFileName(profile)));
+            if(quarkusDumpProperties.isEmpty()) {
+                LOGGER.info("Caching not possible for Quarkus tests, the configuration of the " + profile + " profile is unknown");
+                context.outputs(outputs -> outputs.notCacheableBecause("the Quarkus configuration of the " + profile + " profile is unknown"));
+                decision.notCacheable(QuarkusCacheDecision.CHECK_CONFIG_DUMP_MISSING);
+                recordDecision(context, decision);
+                return;
+            }
+
+            LOGGER.info("Quarkus current test properties not found, resolving them from the configuration sources");
+            quarkusTestProperties = decision.time(QuarkusCacheDecision.PHASE_RESOLVE, () -> resolveProperties(context, profile, quarkusDumpProperties, extensionConfiguration));
+            List<String> unresolvedKeys = getUnresolvedKeys(quarkusDumpProperties, quarkusTestProperties, extensionConfiguration);
+            if(!unresolvedKeys.isEmpty()) {
+                LOGGER.info("Caching not possible for Quarkus tests, Quarkus properties can't be resolved [" + String.join(", ", unresolvedKeys) + "]");
+                context.outputs(outputs -> outputs.notCacheableBecause("the current value of Quarkus properties of the " + profile + " profile is unknown"));
+                decision.notCacheable(QuarkusCacheDecision.CHECK_CONFIG_UNRESOLVED, unresolvedKeys);
+                recordDecision(context, decision);
+                return;
+            }
+        }
+
+        Map<String, String> currentProperties = quarkusTestProperties;
+        decision.time(QuarkusCacheDecision.PHASE_INPUTS, () -> context.inputs(inputs -> {
+            addCompilerInputs(context, inputs);
+            inputs.property("quarkusTestProfile", profile);
+            addQuarkusPropertiesInput(inputs, currentProperties, extensionConfiguration);
+            addQuarkusRuntimeConfigInputs(context, inputs);
+        }));
+
+        recordDecision(context, decision);
+    }
+
+    /**
+     * The failsafe integration-test goal is already cacheable, keyed on the test classes and the failsafe configuration (system properties included).
+     * Quarkus integration tests run against the application packaged by the Quarkus build goal, which is not on the test classpath:
+     * the packaged files are added as inputs, so that integration tests are skipped as long as the runner jar or native executable is identical.
+     * The packaged files are located with the build profile, the application then being launched with the integration test profile.
+     */
+    private void configureQuarkusIntegrationTestGoal(MojoMetadataProvider.Context context, QuarkusExtensionConfiguration extensionConfiguration) {
+        QuarkusCacheDecision decision = new QuarkusCacheDecision(context);
+        String profile = getBuildProfile(context, extensionConfiguration);
+        decision.setProfile(profile);
+        Map<String, String> quarkusBuildProperties = decision.time(QuarkusCacheDecision.PHASE_LOAD, () -> loadProperties(context, extensionConfiguration.getDumpConfigFileName(profile)));
+
+        String packageType = getConfigKeys(context).getPackageType(quarkusBuildProperties);
+        decision.setPackageType(packageType);
+        if(!QUARKUS_CACHEABLE_PACKAGE_TYPES.contains(packageType)) {
+            LOGGER.info("Caching not possible for Quarkus integration tests, the packaged application is unknown");
+            context.outputs(outputs -> outputs.notCacheableBecause("the Quarkus package type " + packageType + " has no known outputs"));
+            decision.notCacheable(QuarkusCacheDecision.CHECK_PACKAGE_TYPE_NOT_CACHEABLE, Collections.singletonList(packageType));
+            recordDecision(context, decision);
+            return;
         }
 
-        return props;
+        decision.time(QuarkusCacheDecision.PHASE_INPUTS, () -> context.inputs(inputs -> {
+            addOsInputs(inputs);
+            addCompilerInputs(context, inputs);
+            inputs.property("quarkusIntegrationTestProfile", getTestProperty(context, QUARKUS_CONFIG_KEY_INTEGRATION_TEST_PROFILE, QUARKUS_DEFAULT_INTEGRATION_TEST_PROFILE));
+            PackageOutputs packageOutputs = getPackageOutputs(context, quarkusBuildProperties, packageType);
+            packageOutputs.files.forEach((name, path) -> addPackageInput(context, inputs, name, path));
+            packageOutputs.directories.forEach((name, path) -> addPackageInput(context, inputs, name, path));
+            addQuarkusRuntimeConfigInputs(context, inputs);
+        }));
+
+        recordDecision(context, decision);
     }
 
-    private boolean isQuarkusBuildCacheable(MojoMetadataProvider.Context context, Properties quarkusBuildProperties, QuarkusExtensionConfiguration extensionConfiguration) {
-        return isQuarkusPropertiesUnchanged(context, quarkusBuildProperties, extensionConfiguration)
-            && isInContainerBuild(quarkusBuildProperties)
-            && isPackagingTypeSupported(quarkusBuildProperties);
+    private void addPackageInput(MojoMetadataProvider.Context context, MojoMetadataProvider.Context.Inputs inputs, String name, String path) {
+        inputs.fileSet(name, resolve(context, path), fileSet -> fileSet.normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.RELATIVE_PATH));
     }
 
-    private boolean isQuarkusPropertiesUnchanged(MojoMetadataProvider.Context context, Properties quarkusProperties, QuarkusExtensionConfiguration extensionConfiguration) {
-        Properties quarkusCurrentProperties = loadProperties(context, extensionConfiguration.getCurrentConfigFileName());
+    /**
+     * Configuration read by the Quarkus application at runtime from outside of its classpath.
+     */
+    private void addQuarkusRuntimeConfigInputs(MojoMetadataProvider.Context context, MojoMetadataProvider.Context.Inputs inputs) {
+        addQuarkusEnvironmentInput(inputs);
+        for(String configFile : QUARKUS_WORKING_DIRECTORY_CONFIG_FILES) {
+            inputs.fileSet("quarkusConfigFile-" + configFile, new File(context.getProject().getBasedir(), configFile), fileSet -> fileSet.normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.RELATIVE_PATH));
+        }
+    }
 
-        Set<Map.Entry<Object, Object>> quarkusPropertiesCopy = new HashSet<>(quarkusProperties.entrySet());
-        quarkusPropertiesCopy.removeAll(quarkusCurrentProperties.entrySet());
+    /**
+     * The Quarkus profile of a goal execution is resolved, by precedence, from the quarkus.profile build property of the execution
+     * configuration, the Maven user and system properties, the QUARKUS_PROFILE environment variable and finally the extension configuration.
+     * Several executions of the Quarkus build goal with different profiles then use their own config dump and cache entries.
+     */
+    private static String getBuildProfile(MojoMetadataProvider.Context context, QuarkusExtensionConfiguration extensionConfiguration) {
+        Xpp3Dom configuration = context.getMojoExecution().getConfiguration();
+        if(configuration != null) {
+            for(String parameter : QUARKUS_GOAL_PROPERTIES_PARAMETERS) {
+                Xpp3Dom properties = configuration.getChild(parameter);
+                Xpp3Dom profile = properties != null ? properties.getChild(QUARKUS_CONFIG_KEY_PROFILE) : null;
+                String value = profile != null ? evaluate(context, profile.getValue()) : null;
+                if(isNotEmpty(value)) {
+                    return value;
+                }
+            }
+        }
+
+        if(context.getSession() != null) {
+            String value = context.getSession().getUserProperties().getProperty(QUARKUS_CONFIG_KEY_PROFILE, context.getSession().getSystemProperties().getProperty(QUARKUS_CONFIG_KEY_PROFILE));
+            if(isNotEmpty(value)) {
+                return value;
+            }
+        }
+
+        String value = System.getenv(QUARKUS_ENV_PROFILE);
+        return isNotEmpty(value) ? value : extensionConfiguration.getBuildProfile();
+    }
+
+    /**
+     * @return value of a property of the tests, resolved from the system properties of the surefire / failsafe execution configuration,
+     * then the Maven user and system properties (passed on to the tests)
+     */
+    private static String getTestProperty(MojoMetadataProvider.Context context, String key, String defaultValue) {
+        Xpp3Dom configuration = context.getMojoExecution().getConfiguration();
+        Xpp3Dom systemProperties = configuration != null ? configuration.getChild(TEST_SYSTEM_PROPERTIES_PARAMETER) : null;
+        Xpp3Dom property = systemProperties != null ? systemProperties.getChild(key) : null;
+        String value = property != null ? evaluate(context, property.getValue()) : null;
+        if(isNotEmpty(value)) {
+            return value;
+        }
+
+        if(context.getSession() != null) {
+            value = context.getSession().getUserProperties().getProperty(key, context.getSession().getSystemProperties().getProperty(key));
+        }
+        return isNotEmpty(value) ? value : defaultValue;
+    }
+
+    /**
+     * Mojo execution configurations are not interpolated, a ${property} value is looked up in the Maven user and project properties.
+     */
+    private static String evaluate(MojoMetadataProvider.Context context, String value) {
+        if(value == null || !value.startsWith("${") || !value.endsWith("}")) {
+            return value;
+        }
+
+        String property = value.substring(2, value.length() - 1);
+        String evaluated = context.getSession() != null ? context.getSession().getUserProperties().getProperty(property) : null;
+        return evaluated != null ? evaluated : context.getProject().getProperties().getProperty(property);
+    }
+
+    private static boolean isQuarkusProject(MojoMetadataProvider.Context context) {
+        return context.getProject().getBuildPlugins().stream().anyMatch(plugin -> QUARKUS_MAVEN_PLUGIN.equals(plugin.getArtifactId()));
+    }
+
+    private void configureQuarkusGenerateCodeGoal(MojoMetadataProvider.Context context, boolean test, QuarkusExtensionConfiguration extensionConfiguration) {
+        QuarkusCacheDecision decision = new QuarkusCacheDecision(context);
+        decision.time(QuarkusCacheDecision.PHASE_INPUTS, () -> configureQuarkusGenerateCodeInputsAndOutputs(context, test, extensionConfiguration));
+        recordDecision(context, decision);
+    }
+
+    private void configureQuarkusGenerateCodeInputsAndOutputs(MojoMetadataProvider.Context context, boolean test, QuarkusExtensionConfiguration extensionConfiguration) {
+        String sourceSet = test ? "test" : "main";
+        String generatedSourcesRoot = test ? "target/generated-test-sources/" : "target/generated-sources/";
+
+        // The mojo registers the generated sources as compile source roots, this has to happen on cache hit as well
+        for(String providerId : QUARKUS_CODEGEN_PROVIDERS.keySet()) {
+            String generatedSourcesDirectory = new File(context.getProject().getBasedir(), generatedSourcesRoot + providerId).getAbsolutePath();
+            if(test) {
+                context.getProject().addTestCompileSourceRoot(generatedSourcesDirectory);
+            } else {
+                context.getProject().addCompileSourceRoot(generatedSourcesDirectory);
+            }
+        }
+
+        context.inputs(inputs -> {
+            addOsInputs(inputs);
+            addCompilerInputs(context, inputs);
+            addCodegenClasspathInput(context, inputs, test, extensionConfiguration);
+            addGenerateCodeMojoInputs(inputs);
+
+            // Codegen sources (proto, avsc...)
+            for(String inputDirectory : new LinkedHashSet<>(QUARKUS_CODEGEN_PROVIDERS.values())) {
+                inputs.fileSet("quarkusCodegen-" + inputDirectory, new File(context.getProject().getBasedir(), "src/" + sourceSet + "/" + inputDirectory), fileSet -> fileSet.normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.RELATIVE_PATH));
+            }
+
+            // Codegen configuration (quarkus.generate-code.*, quarkus.grpc.codegen.*...)
+            inputs.fileSet("quarkusCodegenConfig", new File(context.getProject().getBasedir(), "src/main/resources"), fileSet -> fileSet
+                .include("application*.properties", "application*.yaml", "application*.yml")
+                .normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.RELATIVE_PATH));
+        });
+
+        context.outputs(outputs -> {
+            outputs.cacheable("this plugin has CPU-bound goals with well-defined inputs and outputs");
+            for(String providerId : QUARKUS_CODEGEN_PROVIDERS.keySet()) {
+                outputs.directory("quarkusCodegen-" + providerId, generatedSourcesRoot + providerId);
+            }
+        });
+    }
+
+    private Map<String, String> loadProperties(MojoMetadataProvider.Context context, String propertyFile) {
+        return propertiesFileCache.load(new File(context.getProject().getBasedir(), propertyFile));
+    }
 
-        if(quarkusPropertiesCopy.stream().anyMatch(e -> !QUARKUS_IGNORED_PROPERTIES.contains(e.getKey().toString()))) {
-            LOGGER.info("Quarkus properties have changed [" + quarkusPropertiesCopy.stream().map(e -> e.getKey().toString()).collect(Collectors.joining(", ")) + "]");
+    /**
+     * @return the Quarkus configuration vocabulary matching the version of the Quarkus Maven plugin used by the project
+     */
+    private static QuarkusConfigKeys getConfigKeys(MojoMetadataProvider.Context context) {
+        String quarkusVersion = null;
+        if(QUARKUS_MAVEN_PLUGIN.equals(context.getMojoExecution().getArtifactId())) {
+            quarkusVersion = context.getMojoExecution().getVersion();
         } else {
-            return true;
+            for(Plugin plugin : context.getProject().getBuildPlugins()) {
+                if(QUARKUS_MAVEN_PLUGIN.equals(plugin.getArtifactId())) {
+                    quarkusVersion = plugin.getVersion();
+                    break;
+                }
+            }
         }
 
-        return false;
+        return QuarkusConfigKeys.forVersion(quarkusVersion);
     }
 
-    private boolean isInContainerBuild(Properties quarkusProperties) {
-        if(PACKAGE_NATIVE.equals(quarkusProperties.getProperty(QUARKUS_CONFIG_KEY_PACKAGE_TYPE))) {
-            String builderImage = quarkusProperties.getProperty(QUARKUS_CONFIG_KEY_NATIVE_BUILDER_IMAGE, "");
-            if (builderImage.isEmpty()) {
-                LOGGER.info("Quarkus build is not using a fixed image");
+    private boolean isQuarkusBuildCacheable(MojoMetadataProvider.Context context, String profile, Map<String, String> quarkusBuildProperties, String packageType, QuarkusExtensionConfiguration extensionConfiguration, QuarkusCacheDecision decision) {
+        return isQuarkusPropertiesUnchanged(context, profile, quarkusBuildProperties, extensionConfiguration, decision)
+            && isNativeToolchainFixed(context, profile, quarkusBuildProperties, packageType, decision)
+            && isAppCdsBuilderFixed(context, quarkusBuildProperties, packageType, decision)
+            && isPackagingTypeSupported(packageType, decision)
+            && isContainerImageCacheable(quarkusBuildProperties, decision);
+    }
+
+    /**
+     * A container image built along with the application is cacheable only if it is built by Jib into a tarball, written by
+     * the previous execution of the goal: pushing to a registry or loading into a Docker daemon are side effects which would
+     * be skipped on a cache hit.
+     */
+    private boolean isContainerImageCacheable(Map<String, String> quarkusProperties, QuarkusCacheDecision decision) {
+        if(Boolean.parseBoolean(quarkusProperties.get(QUARKUS_CONFIG_KEY_CONTAINER_IMAGE_PUSH))) {
+            LOGGER.info("Quarkus container image is pushed to a registry");
+            decision.notCacheable(QuarkusCacheDecision.CHECK_CONTAINER_IMAGE_NOT_CACHEABLE, Collections.singletonList(QUARKUS_CONFIG_KEY_CONTAINER_IMAGE_PUSH));
+            return false;
+        }
+
+        if(isContainerImageBuild(quarkusProperties)) {
+            if(!isJibContainerImageBuilder(quarkusProperties)) {
+                LOGGER.info("Quarkus container image is not built with Jib");
+                decision.notCacheable(QuarkusCacheDecision.CHECK_CONTAINER_IMAGE_NOT_CACHEABLE, Collections.singletonList(QUARKUS_CONFIG_KEY_CONTAINER_IMAGE_BUILDER));
+                return false;
+            }
+            File tarball = decision.getContainerImageTarball();
+            if(tarball == null) {
+                LOGGER.info("Quarkus container image is not built as a tarball");
+                decision.notCacheable(QuarkusCacheDecision.CHECK_CONTAINER_IMAGE_NOT_CACHEABLE, Collections.singletonList("tarball"));
                 return false;
             }
+            if(!isContainerImageTarballRecorded(tarball, decision.getContainerImageRecordFile())) {
+                LOGGER.info("Quarkus container image tarball was not written by the previous build");
+                decision.notCacheable(QuarkusCacheDecision.CHECK_CONTAINER_IMAGE_NOT_CACHEABLE, Collections.singletonList("tarball-not-written"));
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isContainerImageTarballRecorded(File tarball, File recordFile) {
+        if(!recordFile.isFile()) {
+            return false;
+        }
+        try {
+            return Files.readAllLines(recordFile.toPath(), StandardCharsets.UTF_8).contains(tarball.getPath());
+        } catch (IOException e) {
+            LOGGER.debug("Quarkus container image record " + recordFile + " can't be read", e);
+            return false;
+        }
+    }
+
+    private static boolean isContainerImageBuild(Map<String, String> quarkusProperties) {
+        return Boolean.parseBoolean(quarkusProperties.get(QUARKUS_CONFIG_KEY_CONTAINER_IMAGE_BUILD));
+    }
+
+    /**
+     * The builder is explicit when several container image extensions are present, Jib otherwise being the only one with quarkus.jib.* keys.
+     */
+    private static boolean isJibContainerImageBuilder(Map<String, String> quarkusProperties) {
+        String builder = quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_CONTAINER_IMAGE_BUILDER, "");
+        if(!builder.isEmpty()) {
+            return QUARKUS_CONTAINER_IMAGE_BUILDER_JIB.equals(builder);
+        }
+        return quarkusProperties.keySet().stream().anyMatch(key -> key.startsWith(QUARKUS_CONFIG_PREFIX_JIB));
+    }
 
-            if (QUARKUS_CONFIG_KEY_NATIVE_CONTAINER_BUILD.stream().noneMatch(key -> Boolean.parseBoolean(quarkusProperties.getProperty(key)))) {
-                LOGGER.info("Quarkus build is not in-container");
+    private boolean isQuarkusPropertiesUnchanged(MojoMetadataProvider.Context context, String profile, Map<String, String> quarkusProperties, QuarkusExtensionConfiguration extensionConfiguration, QuarkusCacheDecision decision) {
+        if(quarkusProperties.isEmpty()) {
+            LOGGER.info("Quarkus previous properties not found");
+            decision.notCacheable(QuarkusCacheDecision.CHECK_CONFIG_DUMP_MISSING);
+            return false;
+        }
+
+        Map<String, String> quarkusCurrentProperties = decision.time(QuarkusCacheDecision.PHASE_LOAD, () -> loadProperties(context, extensionConfiguration.getCurrentConfigFileName(profile)));
+        if(quarkusCurrentProperties.isEmpty()) {
+            LOGGER.info("Quarkus current properties not found, resolving them from the configuration sources");
+            quarkusCurrentProperties = decision.time(QuarkusCacheDecision.PHASE_RESOLVE, () -> resolveProperties(context, profile, quarkusProperties, extensionConfiguration));
+
+            // the properties missing with a resolved config recorded by the previous build are removed overrides, reported by the diff
+            List<String> unresolvedKeys = getUnresolvedKeys(quarkusProperties, quarkusCurrentProperties, extensionConfiguration);
+            if(!unresolvedKeys.isEmpty() && !resolve(context, extensionConfiguration.getResolvedConfigFileName(profile)).isFile()) {
+                LOGGER.info("Quarkus properties can't be resolved [" + String.join(", ", unresolvedKeys) + "]");
+                decision.notCacheable(QuarkusCacheDecision.CHECK_CONFIG_UNRESOLVED, unresolvedKeys);
                 return false;
             }
         }
 
+        Map<String, String> currentProperties = quarkusCurrentProperties;
+        QuarkusConfigDiff configDiff = decision.time(QuarkusCacheDecision.PHASE_DIFF, () -> QuarkusConfigDiff.compute(quarkusProperties, currentProperties, extensionConfiguration.getConfigRules()));
+        if(!configDiff.isEmpty()) {
+            List<String> diffKeys = new ArrayList<>(configDiff.getChangedKeys());
+            diffKeys.addAll(configDiff.getAddedKeys());
+            diffKeys.addAll(configDiff.getRemovedKeys());
+            LOGGER.info("Quarkus properties have changed [" + String.join(", ", diffKeys) + "]");
+            LOGGER.debug("Quarkus properties diff: " + configDiff);
+            decision.notCacheable(QuarkusCacheDecision.CHECK_CONFIG_CHANGED, diffKeys);
+            return false;
+        }
+
         return true;
     }
 
-    private boolean isPackagingTypeSupported(Properties quarkusProperties) {
-        if(QUARKUS_CACHEABLE_PACKAGE_TYPES.stream().noneMatch(key -> key.equals(quarkusProperties.getProperty(QUARKUS_CONFIG_KEY_PACKAGE_TYPE)))) {
+    /**
+     * The current value of a property defined by none of the configuration sources is unknown when it was defined by the previous build
+     * (removed override), or when the resolved config of the previous build is missing.
+     *
+     * @return the keys of the config dump, not ignored, which have not been resolved
+     */
+    private static List<String> getUnresolvedKeys(Map<String, String> dumpProperties, Map<String, String> resolvedProperties, QuarkusExtensionConfiguration extensionConfiguration) {
+        QuarkusConfigRules configRules = extensionConfiguration.getConfigRules();
+        return dumpProperties.keySet().stream()
+            .filter(key -> !configRules.isIgnored(key) && !resolvedProperties.containsKey(key))
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Fallback for modules not running the Quarkus track-config-changes goal, the result is shared by the goal executions of the session.
+     * The properties defined by none of the configuration sources are compared with the resolved config recorded by the previous build.
+     */
+    private Map<String, String> resolveProperties(MojoMetadataProvider.Context context, String profile, Map<String, String> quarkusProperties, QuarkusExtensionConfiguration extensionConfiguration) {
+        File dumpConfigFile = resolve(context, extensionConfiguration.getDumpConfigFileName(profile));
+        return resolvedProperties.computeIfAbsent(dumpConfigFile, file -> {
+            File resolvedConfigFile = resolve(context, extensionConfiguration.getResolvedConfigFileName(profile));
+            Map<String, String> previousResolvedProperties = resolvedConfigFile.isFile() ? propertiesFileCache.load(resolvedConfigFile) : null;
+            Map<String, String> currentResolvedProperties = getResolvedConfigRecord(context, profile, extensionConfiguration).resolver.resolve(quarkusProperties);
+            return QuarkusConfigResolver.current(quarkusProperties, currentResolvedProperties, previousResolvedProperties);
+        });
+    }
+
+    /**
+     * The config dump properties defined by the configuration sources are recorded next to it whenever it is written, whether the track-config-changes
+     * goal is executed or not, so that a later build resolving its configuration tells the properties back to their default value from the removed overrides.
+     */
+    private ResolvedConfigRecord getResolvedConfigRecord(MojoMetadataProvider.Context context, String profile, QuarkusExtensionConfiguration extensionConfiguration) {
+        File dumpConfigFile = resolve(context, extensionConfiguration.getDumpConfigFileName(profile));
+        return resolvedConfigRecords.computeIfAbsent(dumpConfigFile, file -> new ResolvedConfigRecord(
+            QuarkusConfigResolver.create(context, profile, propertiesFileCache),
+            resolve(context, extensionConfiguration.getResolvedConfigFileName(profile)),
+            System.currentTimeMillis()
+        ));
+    }
+
+    /**
+     * A native build is cacheable if it is done in-container with a fixed image,
+     * or locally with a GraalVM whose version can be fingerprinted.
+     */
+    private boolean isNativeToolchainFixed(MojoMetadataProvider.Context context, String profile, Map<String, String> quarkusProperties, String packageType, QuarkusCacheDecision decision) {
+        if(QuarkusConfigKeys.PACKAGE_NATIVE.equals(packageType)) {
+            if(isInContainerBuild(quarkusProperties)) {
+                String builderImage = quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_NATIVE_BUILDER_IMAGE, "");
+                if (builderImage.isEmpty()) {
+                    LOGGER.info("Quarkus build is not using a fixed image");
+                    decision.notCacheable(QuarkusCacheDecision.CHECK_NATIVE_TOOLCHAIN_NOT_FIXED, Collections.singletonList(QUARKUS_CONFIG_KEY_NATIVE_BUILDER_IMAGE));
+                    return false;
+                }
+            } else if(!getGraalVmFingerprint(context, profile).isPresent()) {
+                LOGGER.info("Quarkus build is not in-container and GraalVM version can't be determined");
+                decision.notCacheable(QuarkusCacheDecision.CHECK_NATIVE_TOOLCHAIN_NOT_FIXED, Collections.singletonList("graalvm"));
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * An AppCDS archive generated in-container is cacheable only with a fixed builder image, the image picked by Quarkus otherwise
+     * depending on its version and on the JDK of the build.
+     */
+    private boolean isAppCdsBuilderFixed(MojoMetadataProvider.Context context, Map<String, String> quarkusProperties, String packageType, QuarkusCacheDecision decision) {
+        QuarkusConfigKeys configKeys = getConfigKeys(context);
+        if(isAppCdsBuild(context, quarkusProperties, packageType) && configKeys.isAppCdsInContainer(quarkusProperties) && configKeys.getAppCdsBuilderImage(quarkusProperties).isEmpty()) {
+            LOGGER.info("Quarkus AppCDS archive is generated in-container without a fixed image");
+            decision.notCacheable(QuarkusCacheDecision.CHECK_APPCDS_BUILDER_NOT_FIXED, Collections.singletonList("appcds-builder-image"));
+            return false;
+        }
+
+        return true;
+    }
+
+    private static boolean isInContainerBuild(Map<String, String> quarkusProperties) {
+        return QUARKUS_CONFIG_KEY_NATIVE_CONTAINER_BUILD.stream().anyMatch(key -> Boolean.parseBoolean(quarkusProperties.get(key)));
+    }
+
+    private boolean isPackagingTypeSupported(String packageType, QuarkusCacheDecision decision) {
+        if(!QUARKUS_CACHEABLE_PACKAGE_TYPES.contains(packageType)) {
             LOGGER.info("Quarkus package type is not cacheable");
+            decision.notCacheable(QuarkusCacheDecision.CHECK_PACKAGE_TYPE_NOT_CACHEABLE, Collections.singletonList(packageType));
             return false;
         }
 
         return true;
     }
 
-    private void configureInputs(MojoMetadataProvider.Context context, Properties quarkusProperties) {
+    private void configureInputs(MojoMetadataProvider.Context context, String profile, Map<String, String> quarkusProperties, String packageType, QuarkusExtensionConfiguration extensionConfiguration) {
         context.inputs(inputs -> {
             addOsInputs(inputs);
-            addCompilerInputs(inputs);
-            addClasspathInput(context, inputs);
+            inputs.property("quarkusBuildProfile", profile);
+            addCompilerInputs(context, inputs);
+            if(QuarkusConfigKeys.PACKAGE_NATIVE.equals(packageType)) {
+                addNativeToolchainInputs(context, profile, inputs, quarkusProperties);
+            }
+            if(isAppCdsBuild(context, quarkusProperties, packageType)) {
+                addAppCdsInputs(context, inputs, quarkusProperties);
+            }
+            addClasspathInput(context, inputs, extensionConfiguration);
             addMojoInputs(inputs);
-            addQuarkusPropertiesInput(inputs);
-            addQuarkusFilesInputs(inputs, quarkusProperties);
+            addQuarkusPropertiesInput(inputs, quarkusProperties, extensionConfiguration);
+            addQuarkusFilesInputs(context, inputs, quarkusProperties);
         });
     }
 
+    /**
+     * An AppCDS archive is only valid for the exact JVM which generated it: the JDK running Maven for a local generation,
+     * the builder image for an in-container one.
+     */
+    private void addAppCdsInputs(MojoMetadataProvider.Context context, MojoMetadataProvider.Context.Inputs inputs, Map<String, String> quarkusProperties) {
+        QuarkusConfigKeys configKeys = getConfigKeys(context);
+        if(configKeys.isAppCdsInContainer(quarkusProperties)) {
+            inputs.property("quarkusAppCdsBuilderImage", configKeys.getAppCdsBuilderImage(quarkusProperties));
+        } else {
+            inputs.property("quarkusAppCdsJdkFingerprint", toolchainFingerprints.getBuildJdkFingerprint());
+        }
+    }
+
+    /**
+     * @return whether an AppCDS archive is generated, only jar package types support it
+     */
+    private static boolean isAppCdsBuild(MojoMetadataProvider.Context context, Map<String, String> quarkusProperties, String packageType) {
+        return QUARKUS_APPCDS_PACKAGE_TYPES.contains(packageType) && getConfigKeys(context).isAppCdsEnabled(quarkusProperties);
+    }
+
     private void addOsInputs(MojoMetadataProvider.Context.Inputs inputs) {
         inputs.property("osName", System.getProperty("os.name"))
             .property("osVersion", System.getProperty("os.version"))
             .property("osArch", System.getProperty("os.arch"));
     }
 
-    private void addCompilerInputs(MojoMetadataProvider.Context.Inputs inputs) {
-        inputs.property("javaVersion", System.getProperty("java.version"));
+    private void addCompilerInputs(MojoMetadataProvider.Context context, MojoMetadataProvider.Context.Inputs inputs) {
+        inputs.property("javaVersion", System.getProperty("java.version"))
+            .property("jdkFingerprint", toolchainFingerprints.getJdkFingerprint(context));
+    }
+
+    private void addNativeToolchainInputs(MojoMetadataProvider.Context context, String profile, MojoMetadataProvider.Context.Inputs inputs, Map<String, String> quarkusProperties) {
+        if(isInContainerBuild(quarkusProperties)) {
+            inputs.property("quarkusNativeBuilderImage", quarkusProperties.get(QUARKUS_CONFIG_KEY_NATIVE_BUILDER_IMAGE));
+        } else {
+            inputs.property("graalVmFingerprint", getGraalVmFingerprint(context, profile).orElse(""));
+        }
+    }
+
+    private Optional<String> getGraalVmFingerprint(MojoMetadataProvider.Context context, String profile) {
+        return toolchainFingerprints.getGraalVmFingerprint(QuarkusConfigResolver.create(context, profile, propertiesFileCache));
     }
 
-    private void addClasspathInput(MojoMetadataProvider.Context context, MojoMetadataProvider.Context.Inputs inputs) {
+    private void addClasspathInput(MojoMetadataProvider.Context context, MojoMetadataProvider.Context.Inputs inputs, QuarkusExtensionConfiguration extensionConfiguration) {
         try {
             List<String> compileClasspathElements = context.getProject().getCompileClasspathElements();
-            inputs.fileSet("quarkusCompileClasspath", compileClasspathElements, fileSet -> fileSet.normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.CLASSPATH));
+            addClasspathInput(context, inputs, "quarkusCompileClasspath", compileClasspathElements, extensionConfiguration);
         } catch (DependencyResolutionRequiredException e) {
             throw new IllegalStateException("Classpath can't be resolved");
         }
     }
 
+    private void addCodegenClasspathInput(MojoMetadataProvider.Context context, MojoMetadataProvider.Context.Inputs inputs, boolean test, QuarkusExtensionConfiguration extensionConfiguration) {
+        try {
+            List<String> classpathElements = test ? context.getProject().getTestClasspathElements() : context.getProject().getCompileClasspathElements();
+            addClasspathInput(context, inputs, "quarkusCodegenClasspath", classpathElements, extensionConfiguration);
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalStateException("Classpath can't be resolved");
+        }
+    }
+
+    /**
+     * When the classpath index is enabled, the classpath entries from the local repository (which never change) are declared
+     * as a digest of their indexed content hashes, the other ones (project directories, reactor artifacts) remain a file set.
+     */
+    private void addClasspathInput(MojoMetadataProvider.Context context, MojoMetadataProvider.Context.Inputs inputs, String inputName, List<String> classpathElements, QuarkusExtensionConfiguration extensionConfiguration) {
+        if(!extensionConfiguration.isClasspathIndexEnabled()) {
+            inputs.fileSet(inputName, classpathElements, fileSet -> fileSet.normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.CLASSPATH));
+            return;
+        }
+
+        File localRepository = new File(context.getSession().getLocalRepository().getBasedir());
+        String localRepositoryPath = localRepository.getAbsolutePath() + File.separator;
+        Predicate<File> isIndexed = file -> file.getAbsolutePath().startsWith(localRepositoryPath) && file.isFile();
+
+        ClasspathFingerprintIndex classpathIndex = classpathIndexes.computeIfAbsent(extensionConfiguration.getClasspathIndexFile(localRepository), ClasspathFingerprintIndex::load);
+        inputs.property(inputName + "Digest", classpathIndex.digest(classpathElements, isIndexed));
+
+        List<String> notIndexedClasspathElements = classpathElements.stream().filter(element -> !isIndexed.test(new File(element))).collect(Collectors.toList());
+        inputs.fileSet(inputName, notIndexedClasspathElements, fileSet -> fileSet.normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.CLASSPATH));
+    }
+
+    private void addGenerateCodeMojoInputs(MojoMetadataProvider.Context.Inputs inputs) {
+        inputs
+            .properties("appArtifact", "closeBootstrappedApp", "finalName", "ignoredEntries", "manifestEntries", "manifestSections", "skip", "skipSourceGeneration", "mode", "systemProperties", "properties")
+            .ignore("project", "buildDir", "mojoExecution", "session", "repoSession", "repos", "pluginRepos", "bootstrapId", "buildDirectory");
+    }
+
     private void addMojoInputs(MojoMetadataProvider.Context.Inputs inputs) {
         inputs
             .fileSet("generatedSourcesDirectory", fileSet -> {})
@@ -263,38 +900,218 @@ final class QuarkusBuildCache {
             .ignore("project", "buildDir", "mojoExecution", "session", "repoSession", "repos", "pluginRepos", "attachRunnerAsMainArtifact", "bootstrapId", "buildDirectory");
     }
 
-    private void addQuarkusPropertiesInput(MojoMetadataProvider.Context.Inputs inputs) {
-        inputs.fileSet("quarkusCopyProperties", new File("target/quarkus-app-prod-config-dump"), fileSet -> fileSet.normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.RELATIVE_PATH));
-        inputs.fileSet("generatedSourcesDirectory", fileSet -> {});
+    /**
+     * The Quarkus properties (from the dump config file) are declared as a digest of their normalized values rather than as a file,
+     * so that identical modules checked out in different locations share the same cache key when the project base directory is normalized.
+     */
+    private void addQuarkusPropertiesInput(MojoMetadataProvider.Context.Inputs inputs, Map<String, String> quarkusProperties, QuarkusExtensionConfiguration extensionConfiguration) {
+        QuarkusConfigRules configRules = extensionConfiguration.getConfigRules();
+
+        Map<String, String> normalizedProperties = new TreeMap<>();
+        quarkusProperties.forEach((key, value) -> {
+            if(!configRules.isIgnored(key)) {
+                normalizedProperties.put(key, configRules.normalize(value));
+            }
+        });
+
+        inputs.property("quarkusProperties", digest(normalizedProperties));
+    }
+
+    private void addQuarkusEnvironmentInput(MojoMetadataProvider.Context.Inputs inputs) {
+        Map<String, String> quarkusEnvironment = new TreeMap<>();
+        System.getenv().forEach((name, value) -> {
+            if(name.contains(QUARKUS_ENVIRONMENT_VARIABLE_TOKEN)) {
+                quarkusEnvironment.put(name, value);
+            }
+        });
+
+        inputs.property("quarkusEnvironment", digest(quarkusEnvironment));
+    }
+
+    private static String digest(Map<String, String> properties) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            properties.forEach((key, value) -> {
+                messageDigest.update(key.getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) '=');
+                messageDigest.update(value.getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) '\n');
+            });
+            return String.format("%064x", new BigInteger(1, messageDigest.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
-    private void addQuarkusFilesInputs(MojoMetadataProvider.Context.Inputs inputs, Properties quarkusProperties) {
+    private void addQuarkusFilesInputs(MojoMetadataProvider.Context context, MojoMetadataProvider.Context.Inputs inputs, Map<String, String> quarkusProperties) {
         for(String quarkusFilePropertyKey : QUARKUS_KEYS_AS_FILE_INPUTS) {
-            String quarkusFilePropertyValue = quarkusProperties.getProperty(quarkusFilePropertyKey);
+            String quarkusFilePropertyValue = quarkusProperties.get(quarkusFilePropertyKey);
             if(isNotEmpty(quarkusFilePropertyValue)) {
-                inputs.fileSet(quarkusFilePropertyKey, new File(quarkusFilePropertyValue), fileSet -> fileSet.normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.RELATIVE_PATH));
+                inputs.fileSet(quarkusFilePropertyKey, resolve(context, quarkusFilePropertyValue), fileSet -> fileSet.normalizationStrategy(MojoMetadataProvider.Context.FileSet.NormalizationStrategy.RELATIVE_PATH));
             }
         }
     }
 
-    private boolean isNotEmpty(String value) {
+    /**
+     * @return the file, resolved against the project base directory when relative
+     */
+    private static File resolve(MojoMetadataProvider.Context context, String path) {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(context.getProject().getBasedir(), path);
+    }
+
+    private static boolean isNotEmpty(String value) {
         return value != null && !value.isEmpty();
     }
 
-    private void configureOutputs(MojoMetadataProvider.Context context) {
+    private void configureOutputs(MojoMetadataProvider.Context context, Map<String, String> quarkusProperties, String packageType, QuarkusExtensionConfiguration extensionConfiguration, QuarkusCacheDecision decision) {
         context.outputs(outputs -> {
-            String quarkusExeFileName = "target/" + context.getProject().getBuild().getFinalName() + "-runner";
-            String quarkusJarFileName = "target/" + context.getProject().getBuild().getFinalName() + ".jar";
-            String quarkusUberJarFileName = "target/" + context.getProject().getBuild().getFinalName() + "-runner.jar";
-
             outputs.cacheable("this plugin has CPU-bound goals with well-defined inputs and outputs");
-            outputs.file("quarkusExe", quarkusExeFileName);
-            outputs.file("quarkusJar", quarkusJarFileName);
-            outputs.file("quarkusUberJar", quarkusUberJarFileName);
+
+            PackageOutputs packageOutputs = getPackageOutputs(context, quarkusProperties, packageType);
+            packageOutputs.files.forEach((name, path) -> {
+                outputs.file(name, path);
+                decision.addOutput(resolve(context, path));
+            });
+            packageOutputs.directories.forEach((name, path) -> {
+                outputs.directory(name, path);
+                decision.addOutput(resolve(context, path));
+            });
+
+            if(isContainerImageBuild(quarkusProperties)) {
+                // image tarball, checked to be written by the goal, along with the image id and digest
+                String tarball = extensionConfiguration.getContainerImageTarball();
+                outputs.file("quarkusContainerImage", tarball);
+                decision.addOutput(resolve(context, tarball));
+                for(String jibMetadataFile : QUARKUS_JIB_METADATA_FILES) {
+                    String path = getOutputDirectory(quarkusProperties) + "/" + jibMetadataFile;
+                    outputs.file("quarkusContainerImage-" + jibMetadataFile, path);
+                    decision.addOutput(resolve(context, path));
+                }
+            }
 
             // Do not declare dump config as goal output to avoid
             // Goal execution marked as not cacheable: Build caching was not enabled for this goal execution because pre-existing files were modified. Cacheable goals may only create new files.
             // outputs.file("quarkusProperties", QUARKUS_FILE_PROPERTIES_DUMP);
         });
     }
+
+    /**
+     * @return files and directories produced by the Quarkus build goal for the package type, honoring the output directory,
+     * name and runner suffix of the build (usually set per profile when several profiles are built from the same module)
+     */
+    private static PackageOutputs getPackageOutputs(MojoMetadataProvider.Context context, Map<String, String> quarkusProperties, String packageType) {
+        String outputDirectory = getOutputDirectory(quarkusProperties);
+        String outputName = getOutputName(context, quarkusProperties);
+        String runnerSuffix = getRunnerSuffix(quarkusProperties);
+        String quarkusExeFileName = outputDirectory + "/" + outputName + runnerSuffix;
+        String quarkusJarFileName = QUARKUS_BUILD_DIRECTORY + "/" + context.getProject().getBuild().getFinalName() + ".jar";
+        String quarkusRunnerJarFileName = outputDirectory + "/" + outputName + runnerSuffix + ".jar";
+
+        PackageOutputs packageOutputs = new PackageOutputs();
+
+        // Outputs depend on the package type, see https://quarkus.io/guides/maven-tooling#quarkus-package-pkg-package-config_quarkus.package.type
+        switch (packageType) {
+            case QuarkusConfigKeys.PACKAGE_JAR:
+            case QuarkusConfigKeys.PACKAGE_FAST_JAR:
+                // quarkus-run.jar along with the lib/, app/ and quarkus/ directories
+                packageOutputs.directories.put("quarkusApp", outputDirectory + "/quarkus-app");
+                break;
+            case QuarkusConfigKeys.PACKAGE_LEGACY_JAR:
+                packageOutputs.files.put("quarkusLegacyJar", quarkusRunnerJarFileName);
+                packageOutputs.directories.put("quarkusLegacyLib", outputDirectory + "/lib");
+                break;
+            case QuarkusConfigKeys.PACKAGE_UBER_JAR:
+                // the original jar is renamed to .jar.original when building the uber-jar
+                packageOutputs.files.put("quarkusJar", quarkusJarFileName);
+                packageOutputs.files.put("quarkusUberJar", quarkusRunnerJarFileName);
+                break;
+            case QuarkusConfigKeys.PACKAGE_NATIVE:
+                packageOutputs.files.put("quarkusExe", quarkusExeFileName);
+                break;
+            case QuarkusConfigKeys.PACKAGE_NATIVE_SOURCES:
+                // native-image.args along with the application jars, compiled in a separate (cacheable) step
+                packageOutputs.directories.put("quarkusNativeSources", outputDirectory + "/" + QUARKUS_NATIVE_SOURCES_DIRECTORY_NAME);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported package type " + packageType);
+        }
+
+        // the AppCDS archive of a fast-jar is part of the quarkus-app directory, the other jar package types write it next to the runner jar
+        if(isAppCdsBuild(context, quarkusProperties, packageType) && !packageOutputs.directories.containsKey("quarkusApp")) {
+            packageOutputs.files.put("quarkusAppCds", outputDirectory + "/" + QUARKUS_APPCDS_FILE_NAME);
+        }
+
+        return packageOutputs;
+    }
+
+    /**
+     * @return output directory of the packaged application, relative to the project base directory unless absolute
+     */
+    private static String getOutputDirectory(Map<String, String> quarkusProperties) {
+        String outputDirectory = quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_OUTPUT_DIRECTORY, "");
+        if(outputDirectory.isEmpty()) {
+            return QUARKUS_BUILD_DIRECTORY;
+        }
+        return new File(outputDirectory).isAbsolute() ? outputDirectory : QUARKUS_BUILD_DIRECTORY + "/" + outputDirectory;
+    }
+
+    private static String getOutputName(MojoMetadataProvider.Context context, Map<String, String> quarkusProperties) {
+        String outputName = quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_OUTPUT_NAME, "");
+        return outputName.isEmpty() ? context.getProject().getBuild().getFinalName() : outputName;
+    }
+
+    private static String getRunnerSuffix(Map<String, String> quarkusProperties) {
+        return quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_RUNNER_SUFFIX, QUARKUS_DEFAULT_RUNNER_SUFFIX);
+    }
+
+    /**
+     * Configuration sources of the goal executions writing a config dump, resolved again once the session ends against the written config dump.
+     */
+    private static final class ResolvedConfigRecord {
+
+        private final QuarkusConfigResolver resolver;
+        private final File resolvedConfigFile;
+        private final long startTime;
+
+        private ResolvedConfigRecord(QuarkusConfigResolver resolver, File resolvedConfigFile, long startTime) {
+            this.resolver = resolver;
+            this.resolvedConfigFile = resolvedConfigFile;
+            this.startTime = startTime;
+        }
+
+        /**
+         * A config dump older than the goal execution has not been written by it (cache hit, failed build), the resolved config of the build which wrote it is kept.
+         * The properties are sorted, one per line, without timestamp: the file only changes along with them.
+         */
+        private void save(File dumpConfigFile, PropertiesFileCache propertiesFileCache) {
+            if(!dumpConfigFile.isFile() || dumpConfigFile.lastModified() < startTime - QuarkusCacheDecision.MODIFICATION_TIME_TOLERANCE_MILLIS) {
+                return;
+            }
+
+            try {
+                Properties resolvedProperties = new Properties();
+                resolvedProperties.putAll(resolver.resolve(propertiesFileCache.load(dumpConfigFile)));
+                StringWriter content = new StringWriter();
+                resolvedProperties.store(content, null);
+                List<String> lines = Arrays.stream(content.toString().split("\\R"))
+                    .filter(line -> !line.startsWith("#"))
+                    .sorted()
+                    .collect(Collectors.toList());
+
+                File tmpFile = File.createTempFile(resolvedConfigFile.getName(), ".tmp", resolvedConfigFile.getParentFile());
+                Files.write(tmpFile.toPath(), lines, StandardCharsets.ISO_8859_1);
+                Files.move(tmpFile.toPath(), resolvedConfigFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LOGGER.warn("Quarkus resolved config " + resolvedConfigFile + " can't be written", e);
+            }
+        }
+    }
+
+    private static final class PackageOutputs {
+
+        // Output name -> path relative to the project base directory
+        private final Map<String, String> files = new LinkedHashMap<>();
+        private final Map<String, String> directories = new LinkedHashMap<>();
+    }
 }
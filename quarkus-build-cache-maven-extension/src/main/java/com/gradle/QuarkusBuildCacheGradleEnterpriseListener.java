@@ -3,7 +3,9 @@ package com.gradle;
 import com.gradle.maven.extension.api.GradleEnterpriseApi;
 import com.gradle.maven.extension.api.GradleEnterpriseListener;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.toolchain.ToolchainManager;
 import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,12 +19,16 @@ public final class QuarkusBuildCacheGradleEnterpriseListener implements GradleEn
 
     private final Logger LOGGER = LoggerFactory.getLogger(QuarkusBuildCacheGradleEnterpriseListener.class);
 
-    private final QuarkusBuildCache quarkusBuildCache = new QuarkusBuildCache();
+    @Requirement
+    private ToolchainManager toolchainManager;
 
     @Override
     public void configure(GradleEnterpriseApi api, MavenSession session) {
         LOGGER.info("Executing extension: " + getClass().getSimpleName());
+        // a new instance per session so that cached configurations do not leak across builds (e.g. in a Maven daemon)
+        QuarkusBuildCache quarkusBuildCache = new QuarkusBuildCache(toolchainManager, api.getBuildScan());
         quarkusBuildCache.configureBuildCache(api.getBuildCache());
+        quarkusBuildCache.configureBuildMetrics(session.getRequest());
     }
 
 }
@@ -0,0 +1,242 @@
+package com.gradle;
+
+import com.gradle.maven.extension.api.scan.BuildScanApi;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Measures the Quarkus build goal executions and publishes their wall time, package type,
+ * output sizes and cache outcome as build scan custom values and tags.
+ * The build success action is run once a Quarkus build goal succeeded, the session end action once the session ends.
+ * Other execution events are forwarded to the listener of the Maven execution request.
+ */
+final class QuarkusBuildMetricsListener implements ExecutionListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuarkusBuildMetricsListener.class);
+
+    // Build scan tags
+    private static final String TAG_CACHE_HIT = "Quarkus cache hit";
+    private static final String TAG_CACHE_MISS = "Quarkus cache miss";
+    private static final String TAG_NOT_CACHEABLE = "Quarkus not cacheable";
+
+    // Build scan custom value name prefix, followed by the project artifact id
+    private static final String CUSTOM_VALUE_BUILD_PREFIX = "Quarkus build ";
+
+    private final ExecutionListener delegate;
+    private final QuarkusCacheReport cacheReport;
+    private final BiConsumer<QuarkusCacheDecision, Long> buildSuccessAction;
+    private final Runnable sessionEndAction;
+
+    // Start time per mojo execution
+    private final ConcurrentMap<String, Long> startTimes = new ConcurrentHashMap<>();
+
+    /**
+     * @param buildSuccessAction called with the cache decision and the start time of a succeeded Quarkus build goal
+     */
+    QuarkusBuildMetricsListener(ExecutionListener delegate, QuarkusCacheReport cacheReport, BiConsumer<QuarkusCacheDecision, Long> buildSuccessAction, Runnable sessionEndAction) {
+        this.delegate = delegate;
+        this.cacheReport = cacheReport;
+        this.buildSuccessAction = buildSuccessAction;
+        this.sessionEndAction = sessionEndAction;
+    }
+
+    @Override
+    public void mojoStarted(ExecutionEvent event) {
+        if(isQuarkusBuild(event)) {
+            startTimes.put(executionKey(event), System.currentTimeMillis());
+        }
+        if(delegate != null) {
+            delegate.mojoStarted(event);
+        }
+    }
+
+    @Override
+    public void mojoSucceeded(ExecutionEvent event) {
+        if(isQuarkusBuild(event)) {
+            String executionKey = executionKey(event);
+            Long startTime = startTimes.remove(executionKey);
+            QuarkusCacheDecision decision = cacheReport.getDecision(executionKey);
+            if(startTime != null && decision != null) {
+                buildSuccessAction.accept(decision, startTime);
+                publish(event, decision, startTime);
+            }
+        }
+        if(delegate != null) {
+            delegate.mojoSucceeded(event);
+        }
+    }
+
+    @Override
+    public void mojoFailed(ExecutionEvent event) {
+        if(isQuarkusBuild(event)) {
+            startTimes.remove(executionKey(event));
+        }
+        if(delegate != null) {
+            delegate.mojoFailed(event);
+        }
+    }
+
+    private static boolean isQuarkusBuild(ExecutionEvent event) {
+        return event.getMojoExecution() != null
+            && "quarkus-maven-plugin".equals(event.getMojoExecution().getArtifactId())
+            && "build".equals(event.getMojoExecution().getGoal());
+    }
+
+    private static String executionKey(ExecutionEvent event) {
+        return QuarkusCacheDecision.executionKey(event.getProject(), event.getMojoExecution());
+    }
+
+    private void publish(ExecutionEvent event, QuarkusCacheDecision decision, long startTime) {
+        BuildScanApi buildScan = cacheReport.getBuildScan();
+        if(buildScan == null) {
+            return;
+        }
+
+        long wallTime = System.currentTimeMillis() - startTime;
+        String outcome = getCacheOutcome(decision, startTime);
+        long outputBytes = decision.getOutputs().stream().mapToLong(QuarkusBuildMetricsListener::size).sum();
+        String packageType = decision.getPackageType();
+        boolean isNative = QuarkusConfigKeys.PACKAGE_NATIVE.equals(packageType) || QuarkusConfigKeys.PACKAGE_NATIVE_SOURCES.equals(packageType);
+
+        String metrics = String.format("wallTimeMs=%d, profile=%s, packageType=%s, native=%s, outputBytes=%d, cache=%s",
+            wallTime, decision.getProfile(), packageType, isNative, outputBytes, outcome);
+        LOGGER.debug(CUSTOM_VALUE_BUILD_PREFIX + event.getProject().getArtifactId() + ": " + metrics);
+
+        buildScan.value(CUSTOM_VALUE_BUILD_PREFIX + event.getProject().getArtifactId(), metrics);
+        buildScan.tag(TAG_CACHE_HIT.equals(outcome) ? TAG_CACHE_HIT : TAG_CACHE_MISS.equals(outcome) ? TAG_CACHE_MISS : TAG_NOT_CACHEABLE);
+    }
+
+    private static String getCacheOutcome(QuarkusCacheDecision decision, long startTime) {
+        if(!decision.isCacheable()) {
+            return TAG_NOT_CACHEABLE;
+        }
+
+        return decision.isExecutedSince(startTime) ? TAG_CACHE_MISS : TAG_CACHE_HIT;
+    }
+
+    private static long size(File output) {
+        if(output.isFile()) {
+            return output.length();
+        }
+
+        if(output.isDirectory()) {
+            try (Stream<Path> files = Files.walk(output.toPath())) {
+                return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+            } catch (IOException e) {
+                LOGGER.debug("Size of " + output + " can't be computed");
+            }
+        }
+
+        return 0;
+    }
+
+    @Override
+    public void projectDiscoveryStarted(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.projectDiscoveryStarted(event);
+        }
+    }
+
+    @Override
+    public void sessionStarted(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.sessionStarted(event);
+        }
+    }
+
+    @Override
+    public void sessionEnded(ExecutionEvent event) {
+        sessionEndAction.run();
+        if(delegate != null) {
+            delegate.sessionEnded(event);
+        }
+    }
+
+    @Override
+    public void projectSkipped(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.projectSkipped(event);
+        }
+    }
+
+    @Override
+    public void projectStarted(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.projectStarted(event);
+        }
+    }
+
+    @Override
+    public void projectSucceeded(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.projectSucceeded(event);
+        }
+    }
+
+    @Override
+    public void projectFailed(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.projectFailed(event);
+        }
+    }
+
+    @Override
+    public void mojoSkipped(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.mojoSkipped(event);
+        }
+    }
+
+    @Override
+    public void forkStarted(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.forkStarted(event);
+        }
+    }
+
+    @Override
+    public void forkSucceeded(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.forkSucceeded(event);
+        }
+    }
+
+    @Override
+    public void forkFailed(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.forkFailed(event);
+        }
+    }
+
+    @Override
+    public void forkedProjectStarted(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.forkedProjectStarted(event);
+        }
+    }
+
+    @Override
+    public void forkedProjectSucceeded(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.forkedProjectSucceeded(event);
+        }
+    }
+
+    @Override
+    public void forkedProjectFailed(ExecutionEvent event) {
+        if(delegate != null) {
+            delegate.forkedProjectFailed(event);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.gradle;
+
+import com.gradle.maven.extension.api.cache.MojoMetadataProvider;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caching decision taken for a mojo execution: the check which failed (if any), its details,
+ * and the time spent by the extension per phase (loading, diffing, input registration).
+ */
+final class QuarkusCacheDecision {
+
+    // Checks
+    static final String CHECK_CACHEABLE = "cacheable";
+    static final String CHECK_CACHE_DISABLED = "cache-disabled";
+    static final String CHECK_CONFIG_DUMP_MISSING = "config-dump-missing";
+    static final String CHECK_CONFIG_CHANGED = "config-changed";
+    static final String CHECK_CONFIG_UNRESOLVED = "config-unresolved";
+    static final String CHECK_NATIVE_TOOLCHAIN_NOT_FIXED = "native-toolchain-not-fixed";
+    static final String CHECK_APPCDS_BUILDER_NOT_FIXED = "appcds-builder-not-fixed";
+    static final String CHECK_PACKAGE_TYPE_NOT_CACHEABLE = "package-type-not-cacheable";
+    static final String CHECK_CONTAINER_IMAGE_NOT_CACHEABLE = "container-image-not-cacheable";
+
+    // Tolerance on the modification time of the files written by the goal, file systems may have a 1s granularity
+    static final long MODIFICATION_TIME_TOLERANCE_MILLIS = 1000;
+
+    // Phases
+    static final String PHASE_LOAD = "load";
+    static final String PHASE_RESOLVE = "resolve";
+    static final String PHASE_DIFF = "diff";
+    static final String PHASE_INPUTS = "inputs";
+
+    private final String executionKey;
+    private final String project;
+    private final String goal;
+    private final String executionId;
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private final List<File> outputs = new ArrayList<>();
+    private String check = CHECK_CACHEABLE;
+    private List<String> details = Collections.emptyList();
+    private String profile;
+    private String packageType;
+    private File dumpConfigFile;
+    private File containerImageTarball;
+    private File containerImageRecordFile;
+
+    QuarkusCacheDecision(MojoMetadataProvider.Context context) {
+        this.executionKey = executionKey(context.getProject(), context.getMojoExecution());
+        this.project = context.getProject().getGroupId() + ":" + context.getProject().getArtifactId();
+        this.goal = context.getMojoExecution().getGoal();
+        this.executionId = context.getMojoExecution().getExecutionId();
+    }
+
+    /**
+     * @return key identifying a mojo execution of a project in the session
+     */
+    static String executionKey(MavenProject project, MojoExecution mojoExecution) {
+        return project.getId() + " " + mojoExecution.getArtifactId() + ":" + mojoExecution.getGoal() + "@" + mojoExecution.getExecutionId();
+    }
+
+    /**
+     * Runs the action, its duration being added to the phase.
+     */
+    <T> T time(String phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            phaseNanos.merge(phase, System.nanoTime() - start, Long::sum);
+        }
+    }
+
+    void time(String phase, Runnable action) {
+        time(phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records the failed check, the first one wins.
+     */
+    void notCacheable(String check, List<String> details) {
+        if(isCacheable()) {
+            this.check = check;
+            this.details = new ArrayList<>(details);
+        }
+    }
+
+    void notCacheable(String check) {
+        notCacheable(check, Collections.emptyList());
+    }
+
+    /**
+     * Records an output declared for the goal execution.
+     */
+    void addOutput(File output) {
+        outputs.add(output);
+    }
+
+    void setProfile(String profile) {
+        this.profile = profile;
+    }
+
+    void setPackageType(String packageType) {
+        this.packageType = packageType;
+    }
+
+    /**
+     * @param dumpConfigFile config dump file written by the goal when executed
+     */
+    void setDumpConfigFile(File dumpConfigFile) {
+        this.dumpConfigFile = dumpConfigFile;
+    }
+
+    /**
+     * @param containerImageTarball container image tarball expected from the goal
+     * @param containerImageRecordFile file recording that the previous goal execution wrote the tarball
+     */
+    void setContainerImage(File containerImageTarball, File containerImageRecordFile) {
+        this.containerImageTarball = containerImageTarball;
+        this.containerImageRecordFile = containerImageRecordFile;
+    }
+
+    /**
+     * The goal writes the config dump when it is executed, an older config dump means the outputs were loaded from the cache.
+     *
+     * @param startTime start time of the goal execution
+     */
+    boolean isExecutedSince(long startTime) {
+        return dumpConfigFile == null || dumpConfigFile.lastModified() >= startTime - MODIFICATION_TIME_TOLERANCE_MILLIS;
+    }
+
+    boolean isCacheable() {
+        return CHECK_CACHEABLE.equals(check);
+    }
+
+    String getProject() {
+        return project;
+    }
+
+    String getGoal() {
+        return goal;
+    }
+
+    String getExecutionId() {
+        return executionId;
+    }
+
+    String getCheck() {
+        return check;
+    }
+
+    List<String> getDetails() {
+        return details;
+    }
+
+    String getExecutionKey() {
+        return executionKey;
+    }
+
+    List<File> getOutputs() {
+        return outputs;
+    }
+
+    String getProfile() {
+        return profile;
+    }
+
+    String getPackageType() {
+        return packageType;
+    }
+
+    File getDumpConfigFile() {
+        return dumpConfigFile;
+    }
+
+    File getContainerImageTarball() {
+        return containerImageTarball;
+    }
+
+    File getContainerImageRecordFile() {
+        return containerImageRecordFile;
+    }
+
+    Map<String, Long> getPhaseNanos() {
+        return phaseNanos;
+    }
+
+    long getTotalNanos() {
+        return phaseNanos.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public String toString() {
+        return project + " " + goal + "@" + executionId + ": " + check + (details.isEmpty() ? "" : " " + details);
+    }
+}
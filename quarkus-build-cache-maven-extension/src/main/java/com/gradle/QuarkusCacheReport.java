@@ -0,0 +1,174 @@
+package com.gradle;
+
+import com.gradle.maven.extension.api.scan.BuildScanApi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session-scoped report of the caching decisions. Decisions are buffered during the session, then published as one build scan
+ * custom value per project and written as JSON to the build directory of each project once the session ends.
+ */
+final class QuarkusCacheReport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuarkusCacheReport.class);
+
+    // Report file name, in the project build directory
+    static final String REPORT_FILE_NAME = "quarkus-build-cache-report.json";
+
+    // Build scan custom value name
+    private static final String CUSTOM_VALUE_DECISIONS = "Quarkus cache decisions";
+
+    // May be null when build scans are not available
+    private final BuildScanApi buildScan;
+
+    // Decisions per project build directory
+    private final ConcurrentMap<File, Queue<QuarkusCacheDecision>> decisions = new ConcurrentHashMap<>();
+
+    // Decisions per mojo execution
+    private final ConcurrentMap<String, QuarkusCacheDecision> executionDecisions = new ConcurrentHashMap<>();
+
+    QuarkusCacheReport(BuildScanApi buildScan) {
+        this.buildScan = buildScan;
+    }
+
+    void record(File buildDirectory, QuarkusCacheDecision decision) {
+        executionDecisions.put(decision.getExecutionKey(), decision);
+        LOGGER.debug("Quarkus cache decision " + decision + " " + decision.getPhaseNanos());
+        decisions.computeIfAbsent(buildDirectory, key -> new ConcurrentLinkedQueue<>()).add(decision);
+    }
+
+    /**
+     * Publishes and writes the decisions of each project, once all the mojo executions of the session are done.
+     */
+    void publish() {
+        decisions.forEach((buildDirectory, projectDecisions) -> {
+            List<QuarkusCacheDecision> snapshot = new ArrayList<>(projectDecisions);
+            if(snapshot.isEmpty()) {
+                return;
+            }
+            if(buildScan != null) {
+                buildScan.value(CUSTOM_VALUE_DECISIONS, summary(snapshot));
+            }
+            write(new File(buildDirectory, REPORT_FILE_NAME), snapshot);
+        });
+    }
+
+    /**
+     * @return the decision taken for the mojo execution, null if none
+     */
+    QuarkusCacheDecision getDecision(String executionKey) {
+        return executionDecisions.get(executionKey);
+    }
+
+    /**
+     * @return the build scan API, null when build scans are not available
+     */
+    BuildScanApi getBuildScan() {
+        return buildScan;
+    }
+
+    /**
+     * @return the project followed by the check of each execution and the total extension overhead, so that the causes can be ranked across builds
+     */
+    private static String summary(List<QuarkusCacheDecision> decisions) {
+        StringBuilder summary = new StringBuilder(decisions.get(0).getProject()).append(":");
+        long totalNanos = 0;
+        for(QuarkusCacheDecision decision : decisions) {
+            summary.append(" ").append(decision.getGoal()).append("@").append(decision.getExecutionId()).append("=").append(decision.getCheck()).append(",");
+            totalNanos += decision.getTotalNanos();
+        }
+        return summary.append(" overheadMs=").append(TimeUnit.NANOSECONDS.toMillis(totalNanos)).toString();
+    }
+
+    private static void write(File reportFile, List<QuarkusCacheDecision> decisions) {
+        try {
+            Files.createDirectories(reportFile.getParentFile().toPath());
+            try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+                writer.write("[\n");
+                for(Iterator<QuarkusCacheDecision> iterator = decisions.iterator(); iterator.hasNext();) {
+                    writer.write(toJson(iterator.next()));
+                    writer.write(iterator.hasNext() ? ",\n" : "\n");
+                }
+                writer.write("]\n");
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Quarkus cache report " + reportFile + " can't be written", e);
+        }
+    }
+
+    private static String toJson(QuarkusCacheDecision decision) {
+        StringBuilder json = new StringBuilder("  {");
+        json.append("\"project\": ").append(quote(decision.getProject()));
+        json.append(", \"goal\": ").append(quote(decision.getGoal()));
+        json.append(", \"executionId\": ").append(quote(decision.getExecutionId()));
+        if(decision.getProfile() != null) {
+            json.append(", \"profile\": ").append(quote(decision.getProfile()));
+        }
+        json.append(", \"cacheable\": ").append(decision.isCacheable());
+        json.append(", \"check\": ").append(quote(decision.getCheck()));
+
+        json.append(", \"details\": [");
+        for(Iterator<String> iterator = decision.getDetails().iterator(); iterator.hasNext();) {
+            json.append(quote(iterator.next())).append(iterator.hasNext() ? ", " : "");
+        }
+        json.append("]");
+
+        json.append(", \"timingsMicros\": {");
+        for(Iterator<Map.Entry<String, Long>> iterator = decision.getPhaseNanos().entrySet().iterator(); iterator.hasNext();) {
+            Map.Entry<String, Long> phase = iterator.next();
+            json.append(quote(phase.getKey())).append(": ").append(TimeUnit.NANOSECONDS.toMicros(phase.getValue())).append(iterator.hasNext() ? ", " : "");
+        }
+        json.append("}");
+
+        return json.append("}").toString();
+    }
+
+    private static String quote(String value) {
+        if(value == null) {
+            return "null";
+        }
+
+        StringBuilder quoted = new StringBuilder("\"");
+        for(char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if(c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append("\"").toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.gradle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Difference between the Quarkus properties recorded by the previous build (config dump)
+ * and the current ones (config check), ignored keys excluded and values normalized.
+ */
+final class QuarkusConfigDiff {
+
+    private final List<String> addedKeys;
+    private final List<String> removedKeys;
+    private final List<String> changedKeys;
+
+    private QuarkusConfigDiff(List<String> addedKeys, List<String> removedKeys, List<String> changedKeys) {
+        this.addedKeys = addedKeys;
+        this.removedKeys = removedKeys;
+        this.changedKeys = changedKeys;
+    }
+
+    /**
+     * Compares both property maps in both directions, each key being looked up once.
+     * Rules are only evaluated for differing keys and values.
+     *
+     * @param previousProperties properties recorded by the previous build
+     * @param currentProperties current properties
+     * @param configRules ignored keys and value normalizers
+     * @return the differences
+     */
+    static QuarkusConfigDiff compute(Map<String, String> previousProperties, Map<String, String> currentProperties, QuarkusConfigRules configRules) {
+        List<String> addedKeys = new ArrayList<>();
+        List<String> removedKeys = new ArrayList<>();
+        List<String> changedKeys = new ArrayList<>();
+
+        int commonKeys = 0;
+        for(Map.Entry<String, String> previousEntry : previousProperties.entrySet()) {
+            String key = previousEntry.getKey();
+            String currentValue = currentProperties.get(key);
+
+            if(currentValue == null) {
+                if(!configRules.isIgnored(key)) {
+                    removedKeys.add(key);
+                }
+            } else {
+                commonKeys++;
+                if(!currentValue.equals(previousEntry.getValue())
+                    && !configRules.isIgnored(key)
+                    && !configRules.normalize(currentValue).equals(configRules.normalize(previousEntry.getValue()))) {
+                    changedKeys.add(key);
+                }
+            }
+        }
+
+        // current keys which are not common are new ones
+        if(commonKeys < currentProperties.size()) {
+            for(String key : currentProperties.keySet()) {
+                if(!previousProperties.containsKey(key) && !configRules.isIgnored(key)) {
+                    addedKeys.add(key);
+                }
+            }
+        }
+
+        Collections.sort(addedKeys);
+        Collections.sort(removedKeys);
+        Collections.sort(changedKeys);
+
+        return new QuarkusConfigDiff(Collections.unmodifiableList(addedKeys), Collections.unmodifiableList(removedKeys), Collections.unmodifiableList(changedKeys));
+    }
+
+    boolean isEmpty() {
+        return addedKeys.isEmpty() && removedKeys.isEmpty() && changedKeys.isEmpty();
+    }
+
+    List<String> getAddedKeys() {
+        return addedKeys;
+    }
+
+    List<String> getRemovedKeys() {
+        return removedKeys;
+    }
+
+    List<String> getChangedKeys() {
+        return changedKeys;
+    }
+
+    @Override
+    public String toString() {
+        return "added=" + addedKeys + ", removed=" + removedKeys + ", changed=" + changedKeys;
+    }
+}
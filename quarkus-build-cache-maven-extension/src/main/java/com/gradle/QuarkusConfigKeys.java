@@ -0,0 +1,158 @@
+package com.gradle;
+
+import java.util.Map;
+
+/**
+ * Quarkus' packaging configuration vocabulary, which depends on the Quarkus version.
+ * Each vocabulary resolves the package type, named as by the quarkus.package.type configuration key, and the AppCDS settings.
+ */
+enum QuarkusConfigKeys {
+
+    /**
+     * Quarkus before 3.9: quarkus.package.type
+     */
+    PACKAGE_TYPE {
+        @Override
+        String getPackageType(Map<String, String> quarkusProperties) {
+            return quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_PACKAGE_TYPE, PACKAGE_JAR);
+        }
+
+        @Override
+        boolean isAppCdsEnabled(Map<String, String> quarkusProperties) {
+            return Boolean.parseBoolean(quarkusProperties.get(QUARKUS_CONFIG_KEY_CREATE_APPCDS));
+        }
+
+        @Override
+        boolean isAppCdsInContainer(Map<String, String> quarkusProperties) {
+            return Boolean.parseBoolean(quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_APPCDS_USE_CONTAINER, APPCDS_USE_CONTAINER_DEFAULT));
+        }
+
+        @Override
+        String getAppCdsBuilderImage(Map<String, String> quarkusProperties) {
+            return quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_APPCDS_BUILDER_IMAGE, "");
+        }
+    },
+
+    /**
+     * Quarkus 3.9 onwards: quarkus.package.jar.type, quarkus.package.jar.enabled, quarkus.native.enabled and quarkus.native.sources-only
+     * (quarkus.package.type is still honored when defined, as Quarkus does while it is deprecated)
+     */
+    JAR_AND_NATIVE_ENABLED {
+        @Override
+        String getPackageType(Map<String, String> quarkusProperties) {
+            String legacyPackageType = quarkusProperties.get(QUARKUS_CONFIG_KEY_PACKAGE_TYPE);
+            if(legacyPackageType != null) {
+                return legacyPackageType;
+            }
+
+            if(Boolean.parseBoolean(quarkusProperties.get(QUARKUS_CONFIG_KEY_NATIVE_ENABLED))) {
+                return Boolean.parseBoolean(quarkusProperties.get(QUARKUS_CONFIG_KEY_NATIVE_SOURCES_ONLY)) ? PACKAGE_NATIVE_SOURCES : PACKAGE_NATIVE;
+            }
+
+            if(Boolean.FALSE.toString().equals(quarkusProperties.get(QUARKUS_CONFIG_KEY_JAR_ENABLED))) {
+                return PACKAGE_NONE;
+            }
+
+            return quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_JAR_TYPE, PACKAGE_FAST_JAR);
+        }
+
+        @Override
+        boolean isAppCdsEnabled(Map<String, String> quarkusProperties) {
+            return Boolean.parseBoolean(quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_JAR_APPCDS_ENABLED, quarkusProperties.get(QUARKUS_CONFIG_KEY_CREATE_APPCDS)));
+        }
+
+        @Override
+        boolean isAppCdsInContainer(Map<String, String> quarkusProperties) {
+            return Boolean.parseBoolean(quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_JAR_APPCDS_USE_CONTAINER,
+                quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_APPCDS_USE_CONTAINER, APPCDS_USE_CONTAINER_DEFAULT)));
+        }
+
+        @Override
+        String getAppCdsBuilderImage(Map<String, String> quarkusProperties) {
+            return quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_JAR_APPCDS_BUILDER_IMAGE, quarkusProperties.getOrDefault(QUARKUS_CONFIG_KEY_APPCDS_BUILDER_IMAGE, ""));
+        }
+    };
+
+    // Package types
+    static final String PACKAGE_JAR = "jar";
+    static final String PACKAGE_FAST_JAR = "fast-jar";
+    static final String PACKAGE_LEGACY_JAR = "legacy-jar";
+    static final String PACKAGE_UBER_JAR = "uber-jar";
+    static final String PACKAGE_NATIVE = "native";
+    static final String PACKAGE_NATIVE_SOURCES = "native-sources";
+    // No artifact is produced (quarkus.package.jar.enabled=false)
+    static final String PACKAGE_NONE = "none";
+
+    // Quarkus' packaging configuration keys
+    private static final String QUARKUS_CONFIG_KEY_PACKAGE_TYPE = "quarkus.package.type";
+    private static final String QUARKUS_CONFIG_KEY_JAR_TYPE = "quarkus.package.jar.type";
+    private static final String QUARKUS_CONFIG_KEY_JAR_ENABLED = "quarkus.package.jar.enabled";
+    private static final String QUARKUS_CONFIG_KEY_NATIVE_ENABLED = "quarkus.native.enabled";
+    private static final String QUARKUS_CONFIG_KEY_NATIVE_SOURCES_ONLY = "quarkus.native.sources-only";
+
+    // Quarkus' AppCDS configuration keys, before and from Quarkus 3.9
+    private static final String QUARKUS_CONFIG_KEY_CREATE_APPCDS = "quarkus.package.create-appcds";
+    private static final String QUARKUS_CONFIG_KEY_APPCDS_USE_CONTAINER = "quarkus.package.appcds-use-container";
+    private static final String QUARKUS_CONFIG_KEY_APPCDS_BUILDER_IMAGE = "quarkus.package.appcds-builder-image";
+    private static final String QUARKUS_CONFIG_KEY_JAR_APPCDS_ENABLED = "quarkus.package.jar.appcds.enabled";
+    private static final String QUARKUS_CONFIG_KEY_JAR_APPCDS_USE_CONTAINER = "quarkus.package.jar.appcds.use-container";
+    private static final String QUARKUS_CONFIG_KEY_JAR_APPCDS_BUILDER_IMAGE = "quarkus.package.jar.appcds.builder-image";
+
+    // Quarkus generates the AppCDS archive in a container unless disabled
+    private static final String APPCDS_USE_CONTAINER_DEFAULT = Boolean.TRUE.toString();
+
+    // First Quarkus version using quarkus.package.jar.* and quarkus.native.enabled
+    private static final int[] JAR_AND_NATIVE_ENABLED_VERSION = {3, 9};
+
+    /**
+     * @param quarkusProperties Quarkus properties
+     * @return the package type
+     */
+    abstract String getPackageType(Map<String, String> quarkusProperties);
+
+    /**
+     * @param quarkusProperties Quarkus properties
+     * @return whether an AppCDS archive is generated for the jar package types
+     */
+    abstract boolean isAppCdsEnabled(Map<String, String> quarkusProperties);
+
+    /**
+     * @param quarkusProperties Quarkus properties
+     * @return whether the AppCDS archive is generated in a container, the default when the key is not defined
+     */
+    abstract boolean isAppCdsInContainer(Map<String, String> quarkusProperties);
+
+    /**
+     * @param quarkusProperties Quarkus properties
+     * @return image generating the AppCDS archive in a container, empty for the default image
+     */
+    abstract String getAppCdsBuilderImage(Map<String, String> quarkusProperties);
+
+    /**
+     * @param quarkusVersion version of the Quarkus Maven plugin, null if unknown
+     * @return the vocabulary of this version, the latest one if the version is unknown
+     */
+    static QuarkusConfigKeys forVersion(String quarkusVersion) {
+        if(quarkusVersion == null) {
+            return JAR_AND_NATIVE_ENABLED;
+        }
+
+        String[] versionParts = quarkusVersion.split("[.\\-]");
+        for(int i = 0; i < JAR_AND_NATIVE_ENABLED_VERSION.length; i++) {
+            int versionPart = i < versionParts.length ? parseVersionPart(versionParts[i]) : 0;
+            if(versionPart != JAR_AND_NATIVE_ENABLED_VERSION[i]) {
+                return versionPart > JAR_AND_NATIVE_ENABLED_VERSION[i] ? JAR_AND_NATIVE_ENABLED : PACKAGE_TYPE;
+            }
+        }
+
+        return JAR_AND_NATIVE_ENABLED;
+    }
+
+    private static int parseVersionPart(String versionPart) {
+        try {
+            return Integer.parseInt(versionPart);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
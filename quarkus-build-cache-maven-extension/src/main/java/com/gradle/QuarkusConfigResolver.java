@@ -0,0 +1,215 @@
+package com.gradle;
+
+import com.gradle.maven.extension.api.cache.MojoMetadataProvider;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.UnaryOperator;
+
+/**
+ * Resolves the current value of Quarkus properties from the project configuration sources, used in place of the config check
+ * file when the Quarkus track-config-changes goal has not been executed.
+ * <p>
+ * Sources are looked up with the Quarkus precedence, a profile-prefixed key ({@code %prod.}) in any source winning over the
+ * plain key:
+ * <ol>
+ *     <li>Maven user properties (-D) and system properties</li>
+ *     <li>Environment variables</li>
+ *     <li>The .env file of the project base directory</li>
+ *     <li>Maven project properties</li>
+ *     <li>The application.properties file of the project output directory</li>
+ * </ol>
+ * Property expressions ({@code ${key}} and {@code ${key:default}}) are expanded.
+ * A property which is not defined by any source is not resolved: it may be back to its default value, or be defined by
+ * a source unknown to the resolver. The properties resolved for the previous build tell both apart, see {@link #current}.
+ */
+final class QuarkusConfigResolver {
+
+    // Maximum depth of nested property expressions
+    private static final int MAX_EXPRESSION_DEPTH = 16;
+
+    private final String profilePrefix;
+    private final List<UnaryOperator<String>> sources;
+
+    /**
+     * @param profile Quarkus build profile
+     * @param sources configuration sources by precedence, returning null for the keys they don't define
+     */
+    QuarkusConfigResolver(String profile, List<UnaryOperator<String>> sources) {
+        this.profilePrefix = "%" + profile + ".";
+        this.sources = sources;
+    }
+
+    /**
+     * @param profile Quarkus build profile
+     * @return resolver for the configuration sources of the project
+     */
+    static QuarkusConfigResolver create(MojoMetadataProvider.Context context, String profile, PropertiesFileCache propertiesFileCache) {
+        List<UnaryOperator<String>> sources = new ArrayList<>();
+
+        if(context.getSession() != null) {
+            sources.add(propertiesSource(context.getSession().getUserProperties()));
+            sources.add(propertiesSource(context.getSession().getSystemProperties()));
+        }
+
+        Map<String, String> environment = System.getenv();
+        sources.add(key -> environment.get(toEnvironmentVariableName(key)));
+
+        Map<String, String> dotEnv = propertiesFileCache.load(new File(context.getProject().getBasedir(), ".env"));
+        sources.add(key -> dotEnv.get(toEnvironmentVariableName(key)));
+
+        sources.add(propertiesSource(context.getProject().getProperties()));
+
+        Map<String, String> applicationProperties = propertiesFileCache.load(new File(context.getProject().getBuild().getOutputDirectory(), "application.properties"));
+        sources.add(applicationProperties::get);
+
+        return new QuarkusConfigResolver(profile, Collections.unmodifiableList(sources));
+    }
+
+    private static UnaryOperator<String> propertiesSource(Properties properties) {
+        return properties::getProperty;
+    }
+
+    /**
+     * Quarkus environment variable naming: non-alphanumeric characters replaced by underscores, upper case.
+     */
+    private static String toEnvironmentVariableName(String key) {
+        StringBuilder name = new StringBuilder(key.length());
+        for(int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            name.append(Character.isLetterOrDigit(c) ? Character.toUpperCase(c) : '_');
+        }
+        return name.toString();
+    }
+
+    /**
+     * @param dumpProperties Quarkus properties of the previous build
+     * @return current value of the same properties, the properties which are not defined by any source are missing
+     */
+    Map<String, String> resolve(Map<String, String> dumpProperties) {
+        Map<String, String> currentProperties = new HashMap<>(dumpProperties.size());
+        for(String key : dumpProperties.keySet()) {
+            String value = lookup(key, 0);
+            if(value != null) {
+                currentProperties.put(key, value);
+            }
+        }
+        return currentProperties;
+    }
+
+    /**
+     * A property defined by none of the sources keeps its config dump value if the previous build did not define it either:
+     * it was and still is the default value. It is missing otherwise, its override having been removed since the previous build.
+     *
+     * @param dumpProperties Quarkus properties of the previous build
+     * @param resolvedProperties current value of the same properties, see {@link #resolve(Map)}
+     * @param previousResolvedProperties properties resolved for the previous build, null if unknown
+     * @return current value of the config dump properties, the properties whose value is unknown are missing
+     */
+    static Map<String, String> current(Map<String, String> dumpProperties, Map<String, String> resolvedProperties, Map<String, String> previousResolvedProperties) {
+        Map<String, String> currentProperties = new HashMap<>(resolvedProperties);
+        if(previousResolvedProperties != null) {
+            dumpProperties.forEach((key, value) -> {
+                if(!resolvedProperties.containsKey(key) && !previousResolvedProperties.containsKey(key)) {
+                    currentProperties.put(key, value);
+                }
+            });
+        }
+        return currentProperties;
+    }
+
+    /**
+     * @param key Quarkus property
+     * @return current value of the property, null if it is not defined by any source
+     */
+    String resolve(String key) {
+        return lookup(key, 0);
+    }
+
+    private String lookup(String key, int depth) {
+        String value = lookupRaw(profilePrefix + key);
+        if(value == null) {
+            value = lookupRaw(key);
+        }
+        return value != null ? expand(value, depth) : null;
+    }
+
+    private String lookupRaw(String key) {
+        for(UnaryOperator<String> source : sources) {
+            String value = source.apply(key);
+            if(value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Expands the property expressions, an expression which can't be resolved is kept as is.
+     */
+    private String expand(String value, int depth) {
+        int start = value.indexOf("${");
+        if(start < 0 || depth >= MAX_EXPRESSION_DEPTH) {
+            return value;
+        }
+
+        StringBuilder expanded = new StringBuilder(value.length());
+        int position = 0;
+        while(start >= 0) {
+            int end = findExpressionEnd(value, start + 2);
+            if(end < 0) {
+                break;
+            }
+
+            String expression = value.substring(start + 2, end);
+            int defaultSeparator = findDefaultSeparator(expression);
+            String expressionKey = defaultSeparator < 0 ? expression : expression.substring(0, defaultSeparator);
+            String resolved = lookup(expressionKey, depth + 1);
+            if(resolved == null && defaultSeparator >= 0) {
+                resolved = expand(expression.substring(defaultSeparator + 1), depth + 1);
+            }
+
+            expanded.append(value, position, start).append(resolved != null ? resolved : value.substring(start, end + 1));
+            position = end + 1;
+            start = value.indexOf("${", position);
+        }
+
+        return expanded.append(value.substring(position)).toString();
+    }
+
+    private static int findExpressionEnd(String value, int from) {
+        int nesting = 0;
+        for(int i = from; i < value.length(); i++) {
+            if(value.startsWith("${", i)) {
+                nesting++;
+                i++;
+            } else if(value.charAt(i) == '}') {
+                if(nesting == 0) {
+                    return i;
+                }
+                nesting--;
+            }
+        }
+        return -1;
+    }
+
+    private static int findDefaultSeparator(String expression) {
+        int nesting = 0;
+        for(int i = 0; i < expression.length(); i++) {
+            if(expression.startsWith("${", i)) {
+                nesting++;
+                i++;
+            } else if(expression.charAt(i) == '}') {
+                nesting--;
+            } else if(expression.charAt(i) == ':' && nesting == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
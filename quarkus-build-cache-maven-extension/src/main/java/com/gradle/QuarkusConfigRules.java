@@ -0,0 +1,138 @@
+package com.gradle;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Rules applied when comparing Quarkus properties: keys to ignore and value normalizers.
+ * Patterns are compiled once, exact keys are matched with a hash lookup and the other patterns with a single regular expression.
+ */
+final class QuarkusConfigRules {
+
+    // Prefix of ignored property patterns defined as regular expressions (glob otherwise)
+    private static final String REGEX_PREFIX = "regex:";
+
+    // Placeholder replacing the project base directory in property values
+    private static final String BASEDIR_PLACEHOLDER = "${project.basedir}";
+
+    private final Set<String> ignoredKeys;
+    private final Pattern ignoredKeyPattern;
+    private final Pattern basedirPattern;
+    private final List<Pattern> valueNormalizers;
+
+    private QuarkusConfigRules(Set<String> ignoredKeys, Pattern ignoredKeyPattern, Pattern basedirPattern, List<Pattern> valueNormalizers) {
+        this.ignoredKeys = ignoredKeys;
+        this.ignoredKeyPattern = ignoredKeyPattern;
+        this.basedirPattern = basedirPattern;
+        this.valueNormalizers = valueNormalizers;
+    }
+
+    /**
+     * @param ignoredPatterns ignored keys, either exact keys, globs (* and ?) or regular expressions prefixed with regex:
+     * @param basedir project base directory replaced by a placeholder in values, null to keep values as is
+     * @param valueNormalizers regular expressions whose matches are removed from values
+     * @return compiled rules
+     */
+    static QuarkusConfigRules create(Collection<String> ignoredPatterns, File basedir, Collection<String> valueNormalizers) {
+        Set<String> ignoredKeys = new HashSet<>();
+        List<String> ignoredRegexes = new ArrayList<>();
+
+        for(String ignoredPattern : ignoredPatterns) {
+            if(ignoredPattern.startsWith(REGEX_PREFIX)) {
+                ignoredRegexes.add(ignoredPattern.substring(REGEX_PREFIX.length()));
+            } else if(ignoredPattern.contains("*") || ignoredPattern.contains("?")) {
+                ignoredRegexes.add(globToRegex(ignoredPattern));
+            } else {
+                ignoredKeys.add(ignoredPattern);
+            }
+        }
+
+        return new QuarkusConfigRules(
+            ignoredKeys,
+            ignoredRegexes.isEmpty() ? null : Pattern.compile(ignoredRegexes.stream().map(regex -> "(?:" + regex + ")").collect(Collectors.joining("|"))),
+            basedir != null ? basedirPattern(basedir) : null,
+            valueNormalizers.stream().map(Pattern::compile).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * @param patterns comma separated list
+     * @return list of trimmed, non-empty entries
+     */
+    static List<String> split(String patterns) {
+        if(patterns == null) {
+            return new ArrayList<>();
+        }
+
+        return Arrays.stream(patterns.split(","))
+            .map(String::trim)
+            .filter(pattern -> !pattern.isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Matches the exact absolute path of the project base directory (with forward slashes as well on Windows), as a whole path
+     * element: another path containing it ({@code /mnt/work/app} or {@code /work/app-old} for {@code /work/app}) is left as is.
+     */
+    private static Pattern basedirPattern(File basedir) {
+        String path = basedir.getAbsolutePath();
+        String prefix = Pattern.quote(path);
+        if(File.separatorChar != '/') {
+            prefix = "(?:" + prefix + "|" + Pattern.quote(path.replace(File.separatorChar, '/')) + ")";
+        }
+        return Pattern.compile("(?<![^\\s,;:=\"'])" + prefix + "(?=[/\\\\\\s,;:\"']|$)");
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+
+        for(char c : glob.toCharArray()) {
+            if(c == '*' || c == '?') {
+                if(literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+
+        if(literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+
+        return regex.toString();
+    }
+
+    boolean isIgnored(String key) {
+        return ignoredKeys.contains(key) || (ignoredKeyPattern != null && ignoredKeyPattern.matcher(key).matches());
+    }
+
+    /**
+     * @param value property value
+     * @return value without the project base directory and the volatile parts matched by the value normalizers
+     */
+    String normalize(String value) {
+        String normalizedValue = value;
+
+        if(basedirPattern != null) {
+            normalizedValue = basedirPattern.matcher(normalizedValue).replaceAll(Matcher.quoteReplacement(BASEDIR_PLACEHOLDER));
+        }
+
+        for(Pattern valueNormalizer : valueNormalizers) {
+            normalizedValue = valueNormalizer.matcher(normalizedValue).replaceAll("");
+        }
+
+        return normalizedValue;
+    }
+}
@@ -0,0 +1,229 @@
+package com.gradle;
+
+import com.gradle.maven.extension.api.cache.MojoMetadataProvider;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Quarkus extension configuration, loaded once per project and shared by its mojo executions.
+ */
+final class QuarkusExtensionConfiguration {
+
+    // Environment variable key to disable caching
+    private static final String GRADLE_QUARKUS_KEY_CACHE_ENABLED = "GRADLE_QUARKUS_CACHE_ENABLED";
+
+    // Environment variable or Maven property key to define extension configuration file location
+    private static final String GRADLE_QUARKUS_KEY_CONFIG_FILE = "GRADLE_QUARKUS_EXTENSION_CONFIG_FILE";
+
+    // Extension configuration build profile key
+    private static final String GRADLE_QUARKUS_KEY_BUILD_PROFILE = "BUILD_PROFILE";
+
+    // Extension configuration default profile
+    private static final String GRADLE_QUARKUS_DEFAULT_BUILD_PROFILE = "prod";
+
+    // Extension configuration dump config file prefix
+    private static final String GRADLE_QUARKUS_KEY_DUMP_CONFIG_PREFIX = "DUMP_CONFIG_PREFIX";
+
+    // Extension configuration default dump config file prefix
+    private static final String GRADLE_QUARKUS_DEFAULT_DUMP_CONFIG_PREFIX = "quarkus";
+
+    // Extension configuration dump config file suffix
+    private static final String GRADLE_QUARKUS_KEY_DUMP_CONFIG_SUFFIX = "DUMP_CONFIG_SUFFIX";
+
+    // Extension configuration default dump config file suffix
+    private static final String GRADLE_QUARKUS_DEFAULT_DUMP_CONFIG_SUFFIX = "config-dump";
+
+    // Extension configuration native-image execution id key (exec-maven-plugin execution compiling the native-sources)
+    private static final String GRADLE_QUARKUS_KEY_NATIVE_IMAGE_EXECUTION_ID = "NATIVE_IMAGE_EXECUTION_ID";
+
+    // Extension configuration default native-image execution id
+    private static final String GRADLE_QUARKUS_DEFAULT_NATIVE_IMAGE_EXECUTION_ID = "native-image";
+
+    // Extension configuration ignored Quarkus properties key (comma separated keys, globs or regex: prefixed regular expressions)
+    private static final String GRADLE_QUARKUS_KEY_IGNORED_PROPERTIES = "IGNORED_PROPERTIES";
+
+    // Extension configuration project base directory normalization key
+    private static final String GRADLE_QUARKUS_KEY_NORMALIZE_BASEDIR = "NORMALIZE_BASEDIR";
+
+    // Extension configuration value normalizers key prefix (regular expressions whose matches are removed from Quarkus property values)
+    private static final String GRADLE_QUARKUS_KEY_VALUE_NORMALIZER_PREFIX = "VALUE_NORMALIZER.";
+
+    // Extension configuration classpath index key (classpath entries from the local repository declared as a digest of their content hashes)
+    private static final String GRADLE_QUARKUS_KEY_CLASSPATH_INDEX_ENABLED = "CLASSPATH_INDEX_ENABLED";
+
+    // Extension configuration classpath index file location key
+    private static final String GRADLE_QUARKUS_KEY_CLASSPATH_INDEX_FILE = "CLASSPATH_INDEX_FILE";
+
+    // Extension configuration container image tarball key (file written by the container image build instead of a Docker daemon or registry)
+    private static final String GRADLE_QUARKUS_KEY_CONTAINER_IMAGE_TARBALL = "CONTAINER_IMAGE_TARBALL";
+
+    // Quarkus' properties which are always ignored (the JDK / GraalVM version are extra inputs)
+    private static final List<String> QUARKUS_IGNORED_PROPERTIES = Arrays.asList("quarkus.native.graalvm-home", "quarkus.native.java-home");
+
+    private final Properties configuration = new Properties();
+
+    private final QuarkusConfigRules configRules;
+
+    QuarkusExtensionConfiguration(MojoMetadataProvider.Context context, PropertiesFileCache propertiesFileCache) {
+        // loading default properties
+        String isQuarkusCacheEnabledFromEnv = System.getenv(GRADLE_QUARKUS_KEY_CACHE_ENABLED);
+        configuration.setProperty(GRADLE_QUARKUS_KEY_CACHE_ENABLED, isQuarkusCacheEnabledFromEnv != null ? isQuarkusCacheEnabledFromEnv : "");
+        configuration.setProperty(GRADLE_QUARKUS_KEY_BUILD_PROFILE, GRADLE_QUARKUS_DEFAULT_BUILD_PROFILE);
+        configuration.setProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_PREFIX, GRADLE_QUARKUS_DEFAULT_DUMP_CONFIG_PREFIX);
+        configuration.setProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_SUFFIX, GRADLE_QUARKUS_DEFAULT_DUMP_CONFIG_SUFFIX);
+        configuration.setProperty(GRADLE_QUARKUS_KEY_NATIVE_IMAGE_EXECUTION_ID, GRADLE_QUARKUS_DEFAULT_NATIVE_IMAGE_EXECUTION_ID);
+
+        // loading optional overridden locations
+        String extensionConfigurationFileFromEnv = System.getenv(GRADLE_QUARKUS_KEY_CONFIG_FILE);
+        String extensionConfigurationFileFromMaven =
+            context.getProject().getProperties().getProperty(
+                GRADLE_QUARKUS_KEY_CONFIG_FILE.toLowerCase().replace("_","."),
+                ""
+            );
+
+        if(extensionConfigurationFileFromEnv != null && !extensionConfigurationFileFromEnv.isEmpty()) {
+            // override default properties from configuration file defined in the environment
+            configuration.putAll(propertiesFileCache.load(new File(context.getProject().getBasedir(), extensionConfigurationFileFromEnv)));
+        } else if(!extensionConfigurationFileFromMaven.isEmpty()) {
+            // override default properties from configuration file defined as Maven property
+            configuration.putAll(propertiesFileCache.load(new File(context.getProject().getBasedir(), extensionConfigurationFileFromMaven)));
+        }
+
+        configRules = createConfigRules(context.getProject().getBasedir());
+    }
+
+    private QuarkusConfigRules createConfigRules(File basedir) {
+        List<String> ignoredProperties = new ArrayList<>(QUARKUS_IGNORED_PROPERTIES);
+        ignoredProperties.addAll(QuarkusConfigRules.split(configuration.getProperty(GRADLE_QUARKUS_KEY_IGNORED_PROPERTIES)));
+
+        List<String> valueNormalizers = configuration.stringPropertyNames().stream()
+            .filter(key -> key.startsWith(GRADLE_QUARKUS_KEY_VALUE_NORMALIZER_PREFIX))
+            .sorted()
+            .map(configuration::getProperty)
+            .collect(Collectors.toList());
+
+        // project base directory normalization is disabled by default
+        boolean normalizeBasedir = Boolean.parseBoolean(configuration.getProperty(GRADLE_QUARKUS_KEY_NORMALIZE_BASEDIR));
+
+        return QuarkusConfigRules.create(ignoredProperties, normalizeBasedir ? basedir : null, valueNormalizers);
+    }
+
+    /**
+     * @return whether the classpath index is enabled or not
+     */
+    boolean isClasspathIndexEnabled() {
+        // classpath index is disabled by default
+        return Boolean.parseBoolean(configuration.getProperty(GRADLE_QUARKUS_KEY_CLASSPATH_INDEX_ENABLED));
+    }
+
+    /**
+     * @param localRepository Maven local repository
+     * @return classpath index file, next to the local repository by default
+     */
+    File getClasspathIndexFile(File localRepository) {
+        String classpathIndexFile = configuration.getProperty(GRADLE_QUARKUS_KEY_CLASSPATH_INDEX_FILE, "");
+        if(!classpathIndexFile.isEmpty()) {
+            return new File(classpathIndexFile);
+        }
+
+        return new File(localRepository.getAbsoluteFile().getParentFile(), ".quarkus-build-cache/classpath-index");
+    }
+
+    /**
+     * @return location of the container image tarball relative to the project base directory, empty if the image is not built as a tarball
+     */
+    String getContainerImageTarball() {
+        return configuration.getProperty(GRADLE_QUARKUS_KEY_CONTAINER_IMAGE_TARBALL, "");
+    }
+
+    /**
+     * @return rules applied when comparing Quarkus properties
+     */
+    QuarkusConfigRules getConfigRules() {
+        return configRules;
+    }
+
+    /**
+     * @return whether Quarkus cache is enabled or not
+     */
+    boolean isQuarkusCacheEnabled() {
+        // Quarkus cache is enabled by default
+        return !Boolean.FALSE.toString().equals(configuration.get(GRADLE_QUARKUS_KEY_CACHE_ENABLED));
+    }
+
+    /**
+     * This file contains Quarkus' properties used to configure the application.
+     * This file is generated by the Quarkus build goal.
+     *
+     * @param profile Quarkus profile of the build
+     * @return dump config file name
+     */
+    String getDumpConfigFileName(String profile) {
+        return String.format(".quarkus/%s-%s-%s",
+            configuration.getProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_PREFIX),
+            profile,
+            configuration.getProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_SUFFIX)
+        );
+    }
+
+    /**
+     * This file contains the Quarkus' properties of the config dump defined by the configuration sources of the build which wrote it.
+     * It is written by the extension, next to the config dump, when the config dump is written.
+     *
+     * @param profile Quarkus profile of the build
+     * @return resolved config file name
+     */
+    String getResolvedConfigFileName(String profile) {
+        return String.format(".quarkus/%s-%s-resolved-config",
+            configuration.getProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_PREFIX),
+            profile
+        );
+    }
+
+    /**
+     * This file contains the location of the container image tarball written by the last execution of the build goal.
+     * It is written by the extension once the build goal succeeded, and deleted when the tarball was not written.
+     *
+     * @param profile Quarkus profile of the build
+     * @return container image record file name
+     */
+    String getContainerImageRecordFileName(String profile) {
+        return String.format(".quarkus/%s-%s-container-image",
+            configuration.getProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_PREFIX),
+            profile
+        );
+    }
+
+    /**
+     * @return Quarkus build profile used when the profile is not set for the goal execution
+     */
+    String getBuildProfile() {
+        return configuration.getProperty(GRADLE_QUARKUS_KEY_BUILD_PROFILE);
+    }
+
+    /**
+     * @return id of the exec-maven-plugin execution compiling the native-sources into a native executable
+     */
+    String getNativeImageExecutionId() {
+        return configuration.getProperty(GRADLE_QUARKUS_KEY_NATIVE_IMAGE_EXECUTION_ID);
+    }
+
+    /**
+     * This file contains Quarkus' properties values when process-resources phase is executed.
+     * It is generated by the Quarkus track-config-changes goal.
+     *
+     * @param profile Quarkus profile of the build
+     * @return config check file name
+     */
+    String getCurrentConfigFileName(String profile) {
+        return String.format("target/%s-%s-config-check",
+            configuration.getProperty(GRADLE_QUARKUS_KEY_DUMP_CONFIG_PREFIX),
+            profile
+        );
+    }
+}
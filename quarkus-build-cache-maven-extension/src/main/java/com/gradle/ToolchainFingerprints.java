@@ -0,0 +1,151 @@
+package com.gradle;
+
+import com.gradle.maven.extension.api.cache.MojoMetadataProvider;
+import org.apache.maven.toolchain.Toolchain;
+import org.apache.maven.toolchain.ToolchainManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Fingerprints of the JDK / GraalVM actually used by the build, computed once per session from the release file of their home directory.
+ */
+final class ToolchainFingerprints {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ToolchainFingerprints.class);
+
+    // Release file entry only present in GraalVM distributions
+    private static final String RELEASE_KEY_GRAALVM_VERSION = "GRAALVM_VERSION";
+
+    // Release file entries identifying a JDK / GraalVM distribution
+    private static final List<String> RELEASE_KEYS = Arrays.asList("IMPLEMENTOR", "IMPLEMENTOR_VERSION", "JAVA_VERSION", "JAVA_RUNTIME_VERSION", "JAVA_VERSION_DATE", RELEASE_KEY_GRAALVM_VERSION, "OS_ARCH");
+
+    // Files only present in GraalVM / Mandrel distributions (Mandrel has no GRAALVM_VERSION entry)
+    private static final List<String> GRAALVM_MARKER_FILES = Arrays.asList("lib/svm", "bin/native-image", "bin/native-image.cmd");
+
+    // Quarkus' configuration keys defining the GraalVM used by local native builds
+    private static final String QUARKUS_CONFIG_KEY_GRAALVM_HOME = "quarkus.native.graalvm-home";
+    private static final String QUARKUS_CONFIG_KEY_JAVA_HOME = "quarkus.native.java-home";
+
+    private final PropertiesFileCache propertiesFileCache;
+
+    // May be null when the toolchain manager is not available
+    private final ToolchainManager toolchainManager;
+
+    // Fingerprint per home directory
+    private final ConcurrentMap<File, Optional<String>> fingerprints = new ConcurrentHashMap<>();
+
+    ToolchainFingerprints(PropertiesFileCache propertiesFileCache, ToolchainManager toolchainManager) {
+        this.propertiesFileCache = propertiesFileCache;
+        this.toolchainManager = toolchainManager;
+    }
+
+    /**
+     * The JDK selected by the Maven toolchains plugin for the project, the one running Maven otherwise.
+     *
+     * @return fingerprint of the JDK
+     */
+    String getJdkFingerprint(MojoMetadataProvider.Context context) {
+        File toolchainJavaHome = getToolchainJavaHome(context);
+        if(toolchainJavaHome != null) {
+            Optional<String> toolchainFingerprint = fingerprint(toolchainJavaHome);
+            if(toolchainFingerprint.isPresent()) {
+                return toolchainFingerprint.get();
+            }
+        }
+
+        return getBuildJdkFingerprint();
+    }
+
+    /**
+     * The JDK running Maven, which is the one used by the Quarkus build steps launching a JVM (AppCDS archive generation).
+     *
+     * @return fingerprint of the JDK
+     */
+    String getBuildJdkFingerprint() {
+        File javaHome = new File(System.getProperty("java.home"));
+        // Java 8 JREs have the release file in the JDK directory
+        return fingerprint(javaHome)
+            .orElseGet(() -> fingerprint(javaHome.getParentFile())
+                .orElse(System.getProperty("java.vm.vendor") + " " + System.getProperty("java.runtime.version")));
+    }
+
+    /**
+     * The GraalVM used by a local (not in-container) native build, resolved as Quarkus does from the current configuration
+     * (the previous config dump may hold another home, these keys being ignored when comparing it): quarkus.native.graalvm-home,
+     * GRAALVM_HOME, then quarkus.native.java-home or the JDK running Maven. The home has to be a GraalVM / Mandrel distribution.
+     *
+     * @return fingerprint of GraalVM, empty if it can't be resolved
+     */
+    Optional<String> getGraalVmFingerprint(QuarkusConfigResolver currentConfig) {
+        String graalVmHome = firstNonEmpty(
+            currentConfig.resolve(QUARKUS_CONFIG_KEY_GRAALVM_HOME),
+            System.getenv("GRAALVM_HOME"),
+            currentConfig.resolve(QUARKUS_CONFIG_KEY_JAVA_HOME),
+            System.getProperty("java.home")
+        );
+
+        if(graalVmHome == null) {
+            LOGGER.debug("GraalVM home can't be resolved");
+            return Optional.empty();
+        }
+
+        File home = new File(graalVmHome);
+        if(!isGraalVm(home)) {
+            LOGGER.debug(home + " is not a GraalVM home");
+            return Optional.empty();
+        }
+
+        return fingerprint(home);
+    }
+
+    /**
+     * @return whether the home directory is a GraalVM or Mandrel distribution rather than a plain JDK
+     */
+    private boolean isGraalVm(File home) {
+        return propertiesFileCache.load(new File(home, "release")).containsKey(RELEASE_KEY_GRAALVM_VERSION)
+            || GRAALVM_MARKER_FILES.stream().anyMatch(marker -> new File(home, marker).exists());
+    }
+
+    private File getToolchainJavaHome(MojoMetadataProvider.Context context) {
+        if(toolchainManager == null) {
+            return null;
+        }
+
+        Toolchain toolchain = toolchainManager.getToolchainFromBuildContext("jdk", context.getSession());
+        String java = toolchain != null ? toolchain.findTool("java") : null;
+
+        // <java.home>/bin/java
+        return java != null ? new File(java).getParentFile().getParentFile() : null;
+    }
+
+    private Optional<String> fingerprint(File home) {
+        if(home == null) {
+            return Optional.empty();
+        }
+
+        return fingerprints.computeIfAbsent(home.getAbsoluteFile(), key -> {
+            Map<String, String> release = propertiesFileCache.load(new File(key, "release"));
+            if(release.isEmpty()) {
+                return Optional.empty();
+            }
+
+            return Optional.of(RELEASE_KEYS.stream()
+                .filter(release::containsKey)
+                .map(releaseKey -> releaseKey + "=" + release.get(releaseKey).replace("\"", ""))
+                .collect(Collectors.joining(", ")));
+        });
+    }
+
+    private static String firstNonEmpty(String... values) {
+        return Arrays.stream(values).filter(value -> value != null && !value.isEmpty()).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,77 @@
+package com.gradle;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuarkusConfigDiffTest {
+
+    private static final QuarkusConfigRules NO_RULES = QuarkusConfigRules.create(Collections.emptyList(), null, Collections.emptyList());
+
+    @Test
+    void reportsSortedAddedRemovedAndChangedKeys() {
+        QuarkusConfigDiff diff = QuarkusConfigDiff.compute(
+            map("quarkus.package.type", "fast-jar", "quarkus.log.level", "INFO", "quarkus.http.port", "8080", "b.removed", "1", "a.removed", "1"),
+            map("quarkus.package.type", "uber-jar", "quarkus.log.level", "INFO", "quarkus.http.port", "8081", "b.added", "1", "a.added", "1"),
+            NO_RULES
+        );
+
+        assertFalse(diff.isEmpty());
+        assertEquals(Arrays.asList("a.added", "b.added"), diff.getAddedKeys());
+        assertEquals(Arrays.asList("a.removed", "b.removed"), diff.getRemovedKeys());
+        assertEquals(Arrays.asList("quarkus.http.port", "quarkus.package.type"), diff.getChangedKeys());
+    }
+
+    @Test
+    void isEmptyForIdenticalProperties() {
+        QuarkusConfigDiff diff = QuarkusConfigDiff.compute(map("quarkus.package.type", "fast-jar"), map("quarkus.package.type", "fast-jar"), NO_RULES);
+
+        assertTrue(diff.isEmpty());
+        assertTrue(QuarkusConfigDiff.compute(map(), map(), NO_RULES).isEmpty());
+    }
+
+    @Test
+    void excludesIgnoredKeys() {
+        QuarkusConfigRules rules = QuarkusConfigRules.create(Arrays.asList("quarkus.application.version", "app.*"), null, Collections.emptyList());
+
+        QuarkusConfigDiff diff = QuarkusConfigDiff.compute(
+            map("quarkus.application.version", "1.0", "app.removed", "1"),
+            map("quarkus.application.version", "1.1", "app.added", "1"),
+            rules
+        );
+
+        assertTrue(diff.isEmpty(), diff.toString());
+    }
+
+    @Test
+    void comparesNormalizedValues() {
+        File basedir = new File("/work/app").getAbsoluteFile();
+        QuarkusConfigRules rules = QuarkusConfigRules.create(Collections.emptyList(), basedir, Collections.singletonList("-\\d{8}"));
+        String otherBasedir = new File("/ci/build/app").getAbsolutePath();
+
+        QuarkusConfigDiff diff = QuarkusConfigDiff.compute(
+            map("app.output", basedir.getAbsolutePath() + "/target", "app.name", "app-20230401", "app.other", otherBasedir + "/target"),
+            map("app.output", "${project.basedir}/target", "app.name", "app-20230402", "app.other", basedir.getAbsolutePath() + "/target"),
+            rules
+        );
+
+        // the base directory of another checkout is another path
+        assertEquals(Collections.singletonList("app.other"), diff.getChangedKeys());
+    }
+
+    private static Map<String, String> map(String... keyValues) {
+        Map<String, String> map = new HashMap<>();
+        for(int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
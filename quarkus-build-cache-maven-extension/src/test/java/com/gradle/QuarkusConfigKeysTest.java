@@ -0,0 +1,84 @@
+package com.gradle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuarkusConfigKeysTest {
+
+    @Test
+    void selectsVocabularyOfVersion() {
+        assertEquals(QuarkusConfigKeys.PACKAGE_TYPE, QuarkusConfigKeys.forVersion("2.16.12.Final"));
+        assertEquals(QuarkusConfigKeys.PACKAGE_TYPE, QuarkusConfigKeys.forVersion("3.2.5.Final"));
+        assertEquals(QuarkusConfigKeys.PACKAGE_TYPE, QuarkusConfigKeys.forVersion("3.8.4"));
+        assertEquals(QuarkusConfigKeys.PACKAGE_TYPE, QuarkusConfigKeys.forVersion("3"));
+        assertEquals(QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED, QuarkusConfigKeys.forVersion("3.9"));
+        assertEquals(QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED, QuarkusConfigKeys.forVersion("3.9.0"));
+        assertEquals(QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED, QuarkusConfigKeys.forVersion("3.10.0"));
+        assertEquals(QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED, QuarkusConfigKeys.forVersion("4.0.0"));
+    }
+
+    @Test
+    void selectsVocabularyOfQualifiedVersion() {
+        assertEquals(QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED, QuarkusConfigKeys.forVersion("3.9.0.CR1"));
+        assertEquals(QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED, QuarkusConfigKeys.forVersion("3.9.0-SNAPSHOT"));
+        assertEquals(QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED, QuarkusConfigKeys.forVersion("999-SNAPSHOT"));
+        assertEquals(QuarkusConfigKeys.PACKAGE_TYPE, QuarkusConfigKeys.forVersion("3.8.0.CR1"));
+    }
+
+    @Test
+    void selectsVocabularyOfMalformedVersion() {
+        // non-numeric parts count as 0
+        assertEquals(QuarkusConfigKeys.PACKAGE_TYPE, QuarkusConfigKeys.forVersion("3.x"));
+        assertEquals(QuarkusConfigKeys.PACKAGE_TYPE, QuarkusConfigKeys.forVersion(""));
+        assertEquals(QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED, QuarkusConfigKeys.forVersion("3.9.x"));
+        assertEquals(QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED, QuarkusConfigKeys.forVersion(null));
+    }
+
+    @Test
+    void resolvesPackageTypeBefore39() {
+        QuarkusConfigKeys keys = QuarkusConfigKeys.PACKAGE_TYPE;
+
+        assertEquals(QuarkusConfigKeys.PACKAGE_JAR, keys.getPackageType(Collections.emptyMap()));
+        assertEquals(QuarkusConfigKeys.PACKAGE_NATIVE, keys.getPackageType(map("quarkus.package.type", "native")));
+        // the 3.9 keys are unknown
+        assertEquals(QuarkusConfigKeys.PACKAGE_JAR, keys.getPackageType(map("quarkus.native.enabled", "true")));
+    }
+
+    @Test
+    void resolvesPackageTypeFrom39() {
+        QuarkusConfigKeys keys = QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED;
+
+        assertEquals(QuarkusConfigKeys.PACKAGE_FAST_JAR, keys.getPackageType(Collections.emptyMap()));
+        assertEquals(QuarkusConfigKeys.PACKAGE_UBER_JAR, keys.getPackageType(map("quarkus.package.jar.type", "uber-jar")));
+        assertEquals(QuarkusConfigKeys.PACKAGE_NATIVE, keys.getPackageType(map("quarkus.native.enabled", "true", "quarkus.package.jar.type", "uber-jar")));
+        assertEquals(QuarkusConfigKeys.PACKAGE_NATIVE_SOURCES, keys.getPackageType(map("quarkus.native.enabled", "true", "quarkus.native.sources-only", "true")));
+        assertEquals(QuarkusConfigKeys.PACKAGE_NONE, keys.getPackageType(map("quarkus.package.jar.enabled", "false")));
+        // the deprecated key is still honored
+        assertEquals(QuarkusConfigKeys.PACKAGE_LEGACY_JAR, keys.getPackageType(map("quarkus.package.type", "legacy-jar", "quarkus.native.enabled", "true")));
+    }
+
+    @Test
+    void generatesAppCdsInContainerByDefault() {
+        for(QuarkusConfigKeys keys : QuarkusConfigKeys.values()) {
+            assertTrue(keys.isAppCdsInContainer(Collections.emptyMap()), keys.name());
+            assertFalse(keys.isAppCdsInContainer(map("quarkus.package.appcds-use-container", "false")), keys.name());
+        }
+        assertFalse(QuarkusConfigKeys.JAR_AND_NATIVE_ENABLED.isAppCdsInContainer(map("quarkus.package.jar.appcds.use-container", "false",
+            "quarkus.package.appcds-use-container", "true")));
+    }
+
+    private static Map<String, String> map(String... keyValues) {
+        Map<String, String> map = new HashMap<>();
+        for(int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,131 @@
+package com.gradle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuarkusConfigResolverTest {
+
+    @Test
+    void resolvesFromFirstDefiningSource() {
+        QuarkusConfigResolver resolver = resolver("prod",
+            source("quarkus.package.type", "uber-jar"),
+            source("quarkus.package.type", "fast-jar", "quarkus.native.enabled", "true"),
+            source("quarkus.native.enabled", "false", "quarkus.http.port", "8081")
+        );
+
+        assertEquals("uber-jar", resolver.resolve("quarkus.package.type"));
+        assertEquals("true", resolver.resolve("quarkus.native.enabled"));
+        assertEquals("8081", resolver.resolve("quarkus.http.port"));
+        assertNull(resolver.resolve("quarkus.log.level"));
+    }
+
+    @Test
+    void resolvesProfileKeyOfAnySourceFirst() {
+        QuarkusConfigResolver resolver = resolver("prod",
+            source("quarkus.package.type", "uber-jar", "%dev.quarkus.http.port", "8082"),
+            source("%prod.quarkus.package.type", "fast-jar", "quarkus.http.port", "8081")
+        );
+
+        assertEquals("fast-jar", resolver.resolve("quarkus.package.type"));
+        // the keys of another profile are not looked up
+        assertEquals("8081", resolver.resolve("quarkus.http.port"));
+        assertEquals("uber-jar", resolver("dev", source("quarkus.package.type", "uber-jar")).resolve("quarkus.package.type"));
+    }
+
+    @Test
+    void expandsNestedExpressions() {
+        QuarkusConfigResolver resolver = resolver("prod",
+            source("app.url", "http://${app.host}:${app.port}/", "app.host", "${app.domain}"),
+            source("app.port", "8080", "app.domain", "example.org", "%prod.app.port", "443")
+        );
+
+        assertEquals("http://example.org:443/", resolver.resolve("app.url"));
+    }
+
+    @Test
+    void expandsDefaultValues() {
+        QuarkusConfigResolver resolver = resolver("prod",
+            source("app.url", "${app.host:localhost}:${app.port:${app.default-port}}", "app.default-port", "8080",
+                "app.name", "${app.missing:}", "app.host-port", "${app.host:${app.missing:127.0.0.1}:9000}")
+        );
+
+        assertEquals("localhost:8080", resolver.resolve("app.url"));
+        assertEquals("", resolver.resolve("app.name"));
+        assertEquals("127.0.0.1:9000", resolver.resolve("app.host-port"));
+    }
+
+    @Test
+    void keepsUnresolvableExpressions() {
+        QuarkusConfigResolver resolver = resolver("prod",
+            source("app.url", "http://${app.host}:${app.port}", "app.port", "8080", "app.path", "/${unclosed")
+        );
+
+        assertEquals("http://${app.host}:8080", resolver.resolve("app.url"));
+        assertEquals("/${unclosed", resolver.resolve("app.path"));
+    }
+
+    @Test
+    void stopsExpandingCycles() {
+        QuarkusConfigResolver resolver = resolver("prod",
+            source("app.a", "${app.b}", "app.b", "${app.a}", "app.self", "x${app.self}")
+        );
+
+        assertTrue(resolver.resolve("app.a").startsWith("${"));
+        assertTrue(resolver.resolve("app.self").startsWith("x"));
+    }
+
+    @Test
+    void resolvesOnlyDefinedProperties() {
+        QuarkusConfigResolver resolver = resolver("prod", source("quarkus.package.type", "uber-jar"));
+
+        Map<String, String> resolved = resolver.resolve(map("quarkus.package.type", "fast-jar", "quarkus.http.port", "8080"));
+
+        assertEquals(map("quarkus.package.type", "uber-jar"), resolved);
+    }
+
+    @Test
+    void keepsDumpValueOfPropertiesNeverDefined() {
+        Map<String, String> dump = map("quarkus.package.type", "fast-jar", "quarkus.http.port", "8080", "quarkus.log.level", "INFO");
+        Map<String, String> resolved = map("quarkus.package.type", "uber-jar");
+
+        // the HTTP port is still not defined: default value; the log level was defined and isn't anymore: unknown
+        Map<String, String> current = QuarkusConfigResolver.current(dump, resolved, map("quarkus.log.level", "DEBUG"));
+
+        assertEquals(map("quarkus.package.type", "uber-jar", "quarkus.http.port", "8080"), current);
+    }
+
+    @Test
+    void omitsUndefinedPropertiesWithoutPreviousResolution() {
+        Map<String, String> dump = map("quarkus.package.type", "fast-jar", "quarkus.http.port", "8080");
+
+        Map<String, String> current = QuarkusConfigResolver.current(dump, map("quarkus.package.type", "uber-jar"), null);
+
+        assertEquals(map("quarkus.package.type", "uber-jar"), current);
+    }
+
+    @SafeVarargs
+    private static QuarkusConfigResolver resolver(String profile, UnaryOperator<String>... sources) {
+        return new QuarkusConfigResolver(profile, Collections.unmodifiableList(Arrays.asList(sources)));
+    }
+
+    private static UnaryOperator<String> source(String... keyValues) {
+        return map(keyValues)::get;
+    }
+
+    private static Map<String, String> map(String... keyValues) {
+        Map<String, String> map = new HashMap<>();
+        for(int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,113 @@
+package com.gradle;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuarkusConfigRulesTest {
+
+    private static final File BASEDIR = new File("/work/app").getAbsoluteFile();
+
+    @Test
+    void ignoresExactKeys() {
+        QuarkusConfigRules rules = ignoring("quarkus.application.version");
+
+        assertTrue(rules.isIgnored("quarkus.application.version"));
+        assertFalse(rules.isIgnored("quarkus.application.version.suffix"));
+        assertFalse(rules.isIgnored("quarkus.application"));
+    }
+
+    @Test
+    void ignoresExactKeysLiterally() {
+        QuarkusConfigRules rules = ignoring("quarkus.log.level");
+
+        // the dots of an exact key are not regular expression wildcards
+        assertFalse(rules.isIgnored("quarkusXlogXlevel"));
+    }
+
+    @Test
+    void ignoresGlobs() {
+        QuarkusConfigRules rules = ignoring("quarkus.log.*", "quarkus.http.port?");
+
+        assertTrue(rules.isIgnored("quarkus.log.level"));
+        assertTrue(rules.isIgnored("quarkus.log.category.\"io.quarkus\".level"));
+        assertTrue(rules.isIgnored("quarkus.http.ports"));
+        assertFalse(rules.isIgnored("quarkus.http.port"));
+        assertFalse(rules.isIgnored("quarkus.logging.level"));
+        assertFalse(rules.isIgnored("quarkusXlog.level"));
+    }
+
+    @Test
+    void ignoresRegularExpressions() {
+        QuarkusConfigRules rules = ignoring("regex:quarkus\\.datasource\\.[a-z]+\\.password", "regex:.*\\.token");
+
+        assertTrue(rules.isIgnored("quarkus.datasource.users.password"));
+        assertTrue(rules.isIgnored("quarkus.oidc.token"));
+        assertFalse(rules.isIgnored("quarkus.datasource.users2.password"));
+        // the whole key has to match
+        assertFalse(rules.isIgnored("quarkus.oidc.token.lifespan"));
+    }
+
+    @Test
+    void ignoresAnyMatchingPattern() {
+        QuarkusConfigRules rules = ignoring("quarkus.profile", "quarkus.log.*", "regex:.*\\.secret");
+
+        assertTrue(rules.isIgnored("quarkus.profile"));
+        assertTrue(rules.isIgnored("quarkus.log.level"));
+        assertTrue(rules.isIgnored("app.secret"));
+        assertFalse(rules.isIgnored("quarkus.package.type"));
+    }
+
+    @Test
+    void ignoresNothingWithoutPatterns() {
+        QuarkusConfigRules rules = ignoring();
+
+        assertFalse(rules.isIgnored("quarkus.package.type"));
+        assertFalse(rules.isIgnored(""));
+    }
+
+    @Test
+    void splitsCommaSeparatedPatterns() {
+        assertEquals(Arrays.asList("quarkus.log.*", "regex:.*\\.token"), QuarkusConfigRules.split(" quarkus.log.* ,, regex:.*\\.token ,"));
+        assertEquals(Collections.emptyList(), QuarkusConfigRules.split(" , "));
+        assertEquals(Collections.emptyList(), QuarkusConfigRules.split(null));
+    }
+
+    @Test
+    void replacesBasedirAsWholePathElement() {
+        QuarkusConfigRules rules = QuarkusConfigRules.create(Collections.emptyList(), BASEDIR, Collections.emptyList());
+        String basedir = BASEDIR.getAbsolutePath();
+
+        assertEquals("${project.basedir}", rules.normalize(basedir));
+        assertEquals("${project.basedir}/target/classes", rules.normalize(basedir + "/target/classes"));
+        assertEquals("-Dfile=${project.basedir}/a,${project.basedir}", rules.normalize("-Dfile=" + basedir + "/a," + basedir));
+        assertEquals("/mnt" + basedir + "/target", rules.normalize("/mnt" + basedir + "/target"));
+        assertEquals(basedir + "-old/target", rules.normalize(basedir + "-old/target"));
+    }
+
+    @Test
+    void removesValueNormalizerMatches() {
+        QuarkusConfigRules rules = QuarkusConfigRules.create(Collections.emptyList(), null, Arrays.asList("-\\d{8}", "\\.tmp$"));
+
+        assertEquals("app-build.jar", rules.normalize("app-build-20230401.jar"));
+        assertEquals("work", rules.normalize("work.tmp"));
+        assertEquals("unchanged", rules.normalize("unchanged"));
+    }
+
+    @Test
+    void replacesBasedirBeforeValueNormalizers() {
+        QuarkusConfigRules rules = QuarkusConfigRules.create(Collections.emptyList(), BASEDIR, Collections.singletonList("\\$\\{project\\.basedir\\}/"));
+
+        assertEquals("target", rules.normalize(BASEDIR.getAbsolutePath() + "/target"));
+    }
+
+    private static QuarkusConfigRules ignoring(String... ignoredPatterns) {
+        return QuarkusConfigRules.create(Arrays.asList(ignoredPatterns), null, Collections.emptyList());
+    }
+}
@@ -0,0 +1,95 @@
+package com.gradle.sample;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Greets newline-delimited names as the request body is received, one NDJSON greeting per name.
+ * <p>
+ * Only the name being read is buffered, so that a large request body is never held in memory. A name longer than
+ * {@link #MAX_NAME_LENGTH} ends the greetings with an error record, see {@link #appendError}.
+ */
+final class GreetingBatch {
+
+    // Longer names are rejected, so that a body without line separator can't be buffered
+    static final int MAX_NAME_LENGTH = 1024;
+
+    // UTF-8 bytes of the name being read, a multi-byte character never containing a newline byte
+    private final byte[] name = new byte[MAX_NAME_LENGTH];
+    private int nameLength;
+
+    /**
+     * @param names next part of the request body
+     * @param greetings greetings of the names completed by the part, each followed by a newline
+     * @return whether the names are valid, the greetings ending with an error record otherwise
+     */
+    boolean greet(Buffer names, StringBuilder greetings) {
+        for(int i = 0; i < names.length(); i++) {
+            byte b = names.getByte(i);
+            if(b == '\n') {
+                appendName(greetings);
+            } else if(nameLength == MAX_NAME_LENGTH) {
+                appendError(greetings, "Names are limited to " + MAX_NAME_LENGTH + " bytes");
+                return false;
+            } else {
+                name[nameLength++] = b;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param greetings greeting of the last name, when not followed by a newline
+     */
+    void end(StringBuilder greetings) {
+        appendName(greetings);
+    }
+
+    private void appendName(StringBuilder greetings) {
+        if(nameLength > 0 && name[nameLength - 1] == '\r') {
+            nameLength--;
+        }
+        if(nameLength > 0) {
+            appendGreeting(greetings, new String(name, 0, nameLength, StandardCharsets.UTF_8));
+            greetings.append('\n');
+        }
+        nameLength = 0;
+    }
+
+    /**
+     * The error is reported in-band, as the last record of the stream: the 200 status was sent with the first greetings,
+     * the names being only read as they are greeted.
+     */
+    static void appendError(StringBuilder greetings, String message) {
+        greetings.append("{\"error\":\"");
+        appendEscaped(greetings, message);
+        greetings.append("\"}\n");
+    }
+
+    private static void appendGreeting(StringBuilder greetings, CharSequence name) {
+        greetings.append("{\"greeting\":\"Hello ");
+        appendEscaped(greetings, name);
+        greetings.append(" from RESTEasy Reactive\"}");
+    }
+
+    private static void appendEscaped(StringBuilder json, CharSequence value) {
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                default:
+                    if(c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+    }
+}
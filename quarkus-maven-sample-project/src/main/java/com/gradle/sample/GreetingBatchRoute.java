@@ -0,0 +1,101 @@
+package com.gradle.sample;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+/**
+ * Streams the batch greetings (POST /hello/batch): the newline-delimited names of the request body are greeted by the
+ * {@link GreetingBatch} as they are received, with backpressure, the NDJSON greetings being written meanwhile.
+ * <p>
+ * The route handles the request before the server wide body size check (quarkus.http.limits.max-body-size, 10M by
+ * default), so that only the batch bodies are allowed up to greeting.batch.max-body-size. A larger announced body is
+ * rejected with 413 Request Entity Too Large; once the greetings are written, an error record ends the stream instead.
+ */
+@ApplicationScoped
+public class GreetingBatchRoute {
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    // Runs after the request sampling of the GreetingMetricsFilter, before the body size check and the resource methods
+    private static final int BATCH_ROUTE_ORDER = Integer.MIN_VALUE + 1;
+
+    @ConfigProperty(name = "greeting.batch.max-body-size", defaultValue = "2G")
+    MemorySize maxBodySize;
+
+    void registerBatchRoute(@Observes Router router) {
+        router.post("/hello/batch").order(BATCH_ROUTE_ORDER).handler(this::helloBatch);
+    }
+
+    private void helloBatch(RoutingContext routingContext) {
+        HttpServerRequest request = routingContext.request();
+        HttpServerResponse response = routingContext.response();
+        String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if(contentLength != null && Long.parseLong(contentLength) > maxBodySize.asLongValue()) {
+            response.setStatusCode(413).end();
+            return;
+        }
+
+        response.setChunked(true).putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_NDJSON);
+        BatchExchange exchange = new BatchExchange(request, response);
+        request.handler(exchange::received).endHandler(exchange::ended);
+        request.resume();
+    }
+
+    private final class BatchExchange {
+        private final HttpServerRequest request;
+        private final HttpServerResponse response;
+        private final GreetingBatch batch = new GreetingBatch();
+        private final StringBuilder greetings = new StringBuilder();
+        private long received;
+        // set once the error record is written, the rest of the body being discarded
+        private boolean failed;
+
+        private BatchExchange(HttpServerRequest request, HttpServerResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+
+        private void received(Buffer names) {
+            if(failed || response.closed()) {
+                return;
+            }
+            greetings.setLength(0);
+            received += names.length();
+            if(received > maxBodySize.asLongValue()) {
+                GreetingBatch.appendError(greetings, "Request bodies are limited to " + maxBodySize.asLongValue() + " bytes");
+                fail();
+            } else if(!batch.greet(names, greetings)) {
+                fail();
+            } else if(greetings.length() > 0) {
+                response.write(greetings.toString());
+                if(response.writeQueueFull()) {
+                    request.pause();
+                    response.drainHandler(ignored -> request.resume());
+                }
+            }
+        }
+
+        private void ended(Void ignored) {
+            if(failed || response.closed()) {
+                return;
+            }
+            greetings.setLength(0);
+            batch.end(greetings);
+            response.end(greetings.toString());
+        }
+
+        private void fail() {
+            failed = true;
+            response.end(greetings.toString());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.gradle.sample;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of the rendered personalized greetings, encoded once into a {@link Buffer} reused by every response.
+ * <p>
+ * Entries are evicted when they are older than the time to live, or least recently used first when the cache is full.
+ * Looking up a cached greeting does not allocate, the allocations of the response being up to the server.
+ */
+public final class GreetingCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    // access ordered, guarded by itself
+    private final LinkedHashMap<String, CachedGreeting> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public GreetingCache(int maxSize, long ttl, TimeUnit ttlUnit) {
+        this(maxSize, ttl, ttlUnit, System::nanoTime);
+    }
+
+    GreetingCache(int maxSize, long ttl, TimeUnit ttlUnit, LongSupplier nanoClock) {
+        if(maxSize <= 0) {
+            throw new IllegalArgumentException("Greeting cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlUnit.toNanos(ttl);
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<String, CachedGreeting>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedGreeting> eldest) {
+                if(size() > GreetingCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Renders a personalized greeting, as served without cache.
+     */
+    static Buffer render(String name) {
+        return Buffer.buffer(("Hello " + name + " from RESTEasy Reactive").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the cached greeting of the name, rendered and cached if absent or expired
+     */
+    public Buffer get(String name) {
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            CachedGreeting entry = entries.get(name);
+            if(entry != null) {
+                if(now - entry.createdNanos < ttlNanos) {
+                    hits.increment();
+                    return entry.greeting;
+                }
+                entries.remove(name);
+                evictions.increment();
+            }
+        }
+
+        // rendered outside of the lock, concurrent misses of the same name may render it twice
+        misses.increment();
+        CachedGreeting entry = new CachedGreeting(render(name), now);
+        synchronized (entries) {
+            entries.put(name, entry);
+        }
+        return entry.greeting;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return entries removed because they expired or the cache was full
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static final class CachedGreeting {
+        private final Buffer greeting;
+        private final long createdNanos;
+
+        private CachedGreeting(Buffer greeting, long createdNanos) {
+            this.greeting = greeting;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
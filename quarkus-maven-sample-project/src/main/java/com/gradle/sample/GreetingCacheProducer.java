@@ -0,0 +1,24 @@
+package com.gradle.sample;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+
+@ApplicationScoped
+public class GreetingCacheProducer {
+
+    @ConfigProperty(name = "greeting.cache.max-size", defaultValue = "10000")
+    int maxSize;
+
+    @ConfigProperty(name = "greeting.cache.ttl-ms", defaultValue = "60000")
+    long ttlMillis;
+
+    @Produces
+    @Singleton
+    GreetingCache greetingCache() {
+        return new GreetingCache(maxSize, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,43 @@
+package com.gradle.sample;
+
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+
+/**
+ * Simulated remote dependency of the greeting, answering after a configurable latency (0 by default).
+ * It is either called blocking, holding the calling thread, or non-blocking, completing on a timer.
+ */
+@ApplicationScoped
+public class GreetingDependency {
+
+    static final String GREETING = "Hello from RESTEasy Reactive";
+
+    @ConfigProperty(name = "greeting.dependency.latency-ms", defaultValue = "0")
+    long latencyMillis;
+
+    /**
+     * @return the greeting, after holding the calling thread for the dependency latency
+     */
+    public String greet() {
+        if(latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Greeting dependency call interrupted", e);
+            }
+        }
+        return GREETING;
+    }
+
+    /**
+     * @return the greeting, emitted once the dependency latency has elapsed without holding any thread
+     */
+    public Uni<String> greetAsync() {
+        Uni<String> greeting = Uni.createFrom().item(GREETING);
+        return latencyMillis > 0 ? greeting.onItem().delayIt().by(Duration.ofMillis(latencyMillis)) : greeting;
+    }
+}
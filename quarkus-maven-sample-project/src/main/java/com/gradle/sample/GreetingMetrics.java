@@ -0,0 +1,125 @@
+package com.gradle.sample;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.arc.properties.IfBuildProperty;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters of the {@link GreetingResource} endpoints, tagged with the resource method:
+ * <ul>
+ *     <li>greeting.requests: requests count, tagged with the status class (2xx, 4xx...)</li>
+ *     <li>greeting.requests.active: requests in flight</li>
+ *     <li>greeting.request.duration: latency, with a percentile histogram</li>
+ *     <li>greeting.request.phase: latency of the routing, handler and serialization phases, tagged with the phase,
+ *     for a sample of the requests (greeting.metrics.breakdown-sample-rate, none by default)</li>
+ * </ul>
+ * The meters are created once per resource method, recording a request doesn't look them up in the registry.
+ * The metrics are left out of the build with greeting.metrics.enabled=false, along with the {@link GreetingMetricsFilter}.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "greeting.metrics.enabled", stringValue = "true", enableIfMissing = true)
+public class GreetingMetrics {
+
+    static final String PHASE_ROUTING = "routing";
+    static final String PHASE_HANDLER = "handler";
+    static final String PHASE_SERIALIZATION = "serialization";
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    GreetingCache greetingCache;
+
+    @ConfigProperty(name = "greeting.metrics.breakdown-sample-rate", defaultValue = "0")
+    double breakdownSampleRate;
+
+    private final ConcurrentMap<String, EndpointMeters> endpoints = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void registerCacheMeters() {
+        FunctionCounter.builder("greeting.cache.hits", greetingCache, GreetingCache::getHits).register(registry);
+        FunctionCounter.builder("greeting.cache.misses", greetingCache, GreetingCache::getMisses).register(registry);
+        FunctionCounter.builder("greeting.cache.evictions", greetingCache, GreetingCache::getEvictions).register(registry);
+        Gauge.builder("greeting.cache.size", greetingCache, GreetingCache::size).register(registry);
+    }
+
+    /**
+     * @return ratio of the requests whose phases are timed, between 0 and 1
+     */
+    public double getBreakdownSampleRate() {
+        return breakdownSampleRate;
+    }
+
+    EndpointMeters endpoint(String method) {
+        EndpointMeters meters = endpoints.get(method);
+        return meters != null ? meters : endpoints.computeIfAbsent(method, key -> new EndpointMeters(registry, key));
+    }
+
+    static final class EndpointMeters {
+        private final Timer duration;
+        private final AtomicInteger active = new AtomicInteger();
+        // indexed by status / 100
+        private final Counter[] requests = new Counter[6];
+        private final Timer routing;
+        private final Timer handler;
+        private final Timer serialization;
+
+        private EndpointMeters(MeterRegistry registry, String method) {
+            duration = Timer.builder("greeting.request.duration")
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(registry);
+            Gauge.builder("greeting.requests.active", active, AtomicInteger::get)
+                .tag("method", method)
+                .register(registry);
+            for(int statusClass = 1; statusClass < requests.length; statusClass++) {
+                requests[statusClass] = Counter.builder("greeting.requests")
+                    .tag("method", method)
+                    .tag("status", statusClass + "xx")
+                    .register(registry);
+            }
+            routing = phaseTimer(registry, method, PHASE_ROUTING);
+            handler = phaseTimer(registry, method, PHASE_HANDLER);
+            serialization = phaseTimer(registry, method, PHASE_SERIALIZATION);
+        }
+
+        private static Timer phaseTimer(MeterRegistry registry, String method, String phase) {
+            return Timer.builder("greeting.request.phase")
+                .tag("method", method)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(registry);
+        }
+
+        void requestStarted() {
+            active.incrementAndGet();
+        }
+
+        void requestEnded(long durationNanos, int status) {
+            active.decrementAndGet();
+            duration.record(durationNanos, TimeUnit.NANOSECONDS);
+            int statusClass = status / 100;
+            if(statusClass > 0 && statusClass < requests.length) {
+                requests[statusClass].increment();
+            }
+        }
+
+        void recordPhases(long routingNanos, long handlerNanos, long serializationNanos) {
+            routing.record(routingNanos, TimeUnit.NANOSECONDS);
+            handler.record(handlerNanos, TimeUnit.NANOSECONDS);
+            serialization.record(serializationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
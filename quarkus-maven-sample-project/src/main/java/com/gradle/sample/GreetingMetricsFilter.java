@@ -0,0 +1,91 @@
+package com.gradle.sample;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records the {@link GreetingMetrics} of the {@link GreetingResource} requests: from the request filter to the end of the
+ * response, and for the sampled requests the time spent in each phase:
+ * <ul>
+ *     <li>routing: from the first route of the request to the request filter</li>
+ *     <li>handler: from the request filter to the response filter, once the resource method result is available</li>
+ *     <li>serialization: from the response filter to the end of the response</li>
+ * </ul>
+ * Neither the sampling route nor the filters are registered when the metrics are left out of the build
+ * (greeting.metrics.enabled=false).
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "greeting.metrics.enabled", stringValue = "true", enableIfMissing = true)
+public class GreetingMetricsFilter {
+
+    private static final String SAMPLE_KEY = GreetingMetricsFilter.class.getName() + ".sample";
+
+    // Runs before the other routes, so that the routing phase starts with the request
+    private static final int SAMPLING_ROUTE_ORDER = Integer.MIN_VALUE;
+
+    @Inject
+    GreetingMetrics metrics;
+
+    void sampleRequests(@Observes Router router) {
+        router.route().order(SAMPLING_ROUTE_ORDER).handler(routingContext -> {
+            double sampleRate = metrics.getBreakdownSampleRate();
+            if(sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                routingContext.put(SAMPLE_KEY, new Sample(System.nanoTime()));
+            }
+            routingContext.next();
+        });
+    }
+
+    @ServerRequestFilter
+    public void requestStarted(SimpleResourceInfo resourceInfo, RoutingContext routingContext) {
+        if(resourceInfo.getResourceClass() != GreetingResource.class) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        GreetingMetrics.EndpointMeters endpoint = metrics.endpoint(resourceInfo.getMethodName());
+        endpoint.requestStarted();
+
+        Sample sample = routingContext.get(SAMPLE_KEY);
+        if(sample != null) {
+            sample.filtered = start;
+        }
+
+        // also called when the connection is closed before the response ends
+        routingContext.addEndHandler(result -> {
+            long end = System.nanoTime();
+            endpoint.requestEnded(end - start, routingContext.response().getStatusCode());
+            if(sample != null && sample.handled != 0) {
+                endpoint.recordPhases(sample.filtered - sample.routed, sample.handled - sample.filtered, end - sample.handled);
+            }
+        });
+    }
+
+    @ServerResponseFilter
+    public void responseReady(RoutingContext routingContext) {
+        Sample sample = routingContext.get(SAMPLE_KEY);
+        if(sample != null && sample.filtered != 0) {
+            sample.handled = System.nanoTime();
+        }
+    }
+
+    private static final class Sample {
+        private final long routed;
+        // 0 until the phase is reached
+        private long filtered;
+        private long handled;
+
+        private Sample(long routed) {
+            this.routed = routed;
+        }
+    }
+}
@@ -1,16 +1,78 @@
 package com.gradle.sample;
 
-//import javax.ws.rs.GET;
-//import javax.ws.rs.Path;
-//import javax.ws.rs.Produces;
-//import javax.ws.rs.core.MediaType;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.common.annotation.NonBlocking;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 
-//@Path("/hello")
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Greeting endpoints, the /hello/* variants calling the simulated {@link GreetingDependency} with different execution modes:
+ * <ul>
+ *     <li>event-loop: non-blocking call on the Vert.x event loop</li>
+ *     <li>worker: blocking call on the worker pool</li>
+ *     <li>virtual-thread: blocking call on a virtual thread</li>
+ * </ul>
+ * The personalized greetings (/hello/{name}) are served from the {@link GreetingCache}, the batch greetings
+ * (POST /hello/batch) are streamed by the {@link GreetingBatchRoute}.
+ */
+@Path("/hello")
 public class GreetingResource {
 
-//    @GET
-//    @Produces(MediaType.TEXT_PLAIN)
+    private static final String TEXT_PLAIN_UTF_8 = MediaType.TEXT_PLAIN + ";charset=UTF-8";
+
+    @Inject
+    GreetingDependency dependency;
+
+    @Inject
+    VirtualThreadExecutor virtualThreadExecutor;
+
+    @Inject
+    GreetingCache greetingCache;
+
+    @GET
+    @Produces(MediaType.TEXT_PLAIN)
     public String hello() {
         return "Hello from RESTEasy Reactive";
     }
+
+    @GET
+    @Path("/event-loop")
+    @Produces(MediaType.TEXT_PLAIN)
+    @NonBlocking
+    public Uni<String> helloOnEventLoop() {
+        return dependency.greetAsync();
+    }
+
+    @GET
+    @Path("/worker")
+    @Produces(MediaType.TEXT_PLAIN)
+    @Blocking
+    public String helloOnWorker() {
+        return dependency.greet();
+    }
+
+    @GET
+    @Path("/virtual-thread")
+    @Produces(MediaType.TEXT_PLAIN)
+    @NonBlocking
+    public Uni<String> helloOnVirtualThread() {
+        // the request is dispatched from the event loop, the blocking call is offloaded to a virtual thread
+        return Uni.createFrom().item(dependency::greet).runSubscriptionOn(virtualThreadExecutor);
+    }
+
+    @GET
+    @Path("/{name}")
+    @Produces(TEXT_PLAIN_UTF_8)
+    @NonBlocking
+    public Buffer helloName(@PathParam("name") String name) {
+        // pre-encoded response, written as is
+        return greetingCache.get(name);
+    }
 }
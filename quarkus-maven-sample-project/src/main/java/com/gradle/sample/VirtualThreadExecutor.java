@@ -0,0 +1,57 @@
+package com.gradle.sample;
+
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor running each task on a new virtual thread.
+ * <p>
+ * The application targets Java 11, on which Quarkus rejects {@code @RunOnVirtualThread}: the virtual thread executor is
+ * looked up at runtime and the worker pool is used instead when the JVM has no virtual threads (before Java 21).
+ */
+@ApplicationScoped
+public class VirtualThreadExecutor implements Executor {
+
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreadExecutor.class);
+
+    // null when virtual threads are not available
+    private final ExecutorService virtualThreads = createVirtualThreadPerTaskExecutor();
+
+    private static ExecutorService createVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Virtual threads are not available on Java " + Runtime.version().feature() + ", the worker pool is used instead");
+            return null;
+        }
+    }
+
+    /**
+     * @return whether tasks run on virtual threads or on the worker pool
+     */
+    public boolean isVirtual() {
+        return virtualThreads != null;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if(virtualThreads != null) {
+            virtualThreads.execute(task);
+        } else {
+            Infrastructure.getDefaultWorkerPool().execute(task);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if(virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.gradle.sample;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load benchmark of the greeting execution modes at rising concurrency, enabled with -Dbenchmark=true:
+ * <pre>
+ * ./mvnw test -Dtest=ExecutionModeBenchmarkTest -Dbenchmark=true -Dbenchmark.latency-ms=20 -Dbenchmark.concurrency=1,16,64,256
+ * </pre>
+ * The report is written to target/load-benchmark/execution-modes.md, where the virtual-thread mode is labeled as running on
+ * the worker pool when the JVM has no virtual threads (before Java 21)
+ */
+@QuarkusTest
+@TestProfile(ExecutionModeBenchmarkTest.Profile.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ExecutionModeBenchmarkTest {
+
+    private static final List<String> MODES = Arrays.asList("event-loop", "worker", "virtual-thread");
+
+    @TestHTTPResource("/hello")
+    URL helloUrl;
+
+    @Inject
+    VirtualThreadExecutor virtualThreadExecutor;
+
+    @Test
+    public void benchmarkExecutionModes() throws Exception {
+        Duration warmup = Duration.ofSeconds(Long.getLong("benchmark.warmup-s", 3));
+        Duration duration = Duration.ofSeconds(Long.getLong("benchmark.duration-s", 10));
+
+        LoadGenerator loadGenerator = new LoadGenerator();
+        List<String> rows = new ArrayList<>();
+        for(String mode : MODES) {
+            URI uri = URI.create(helloUrl + "/" + mode);
+            for(String concurrency : System.getProperty("benchmark.concurrency", "1,16,64,256").split(",")) {
+                LoadGenerator.Result result = loadGenerator.runClosedLoop(uri, Integer.parseInt(concurrency.trim()), warmup, duration);
+                String row = String.format("| %s | %d | %d | %.0f | %.2f | %.2f | %.2f | %d |",
+                    label(mode), result.getConcurrency(), result.getRequests(), result.getThroughput(),
+                    result.getLatencyMillis(50), result.getLatencyMillis(99), result.getLatencyMillis(99.9), result.getErrors());
+                rows.add(row);
+                assertEquals(0, result.getErrors(), mode + " failed requests at concurrency " + concurrency);
+            }
+        }
+
+        writeReport(rows, warmup, duration);
+    }
+
+    private String label(String mode) {
+        if(mode.equals("virtual-thread") && !virtualThreadExecutor.isVirtual()) {
+            return mode + " (worker pool, no virtual threads on Java " + Runtime.version().feature() + ")";
+        }
+        return mode;
+    }
+
+    private static void writeReport(List<String> rows, Duration warmup, Duration duration) throws IOException {
+        List<String> report = new ArrayList<>();
+        report.add("# Execution modes benchmark");
+        report.add("");
+        report.add(String.format("Dependency latency %s ms, warmup %d s, measured %d s per run, closed loop.",
+            Profile.latencyMillis(), warmup.getSeconds(), duration.getSeconds()));
+        report.add("");
+        report.add("| Mode | Concurrency | Requests | Throughput (req/s) | p50 (ms) | p99 (ms) | p99.9 (ms) | Errors |");
+        report.add("|---|---|---|---|---|---|---|---|");
+        report.addAll(rows);
+
+        Path reportFile = Paths.get("target", "load-benchmark", "execution-modes.md");
+        Files.createDirectories(reportFile.getParent());
+        Files.write(reportFile, report, StandardCharsets.UTF_8);
+    }
+
+    public static class Profile implements QuarkusTestProfile {
+
+        static String latencyMillis() {
+            return System.getProperty("benchmark.latency-ms", "20");
+        }
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("greeting.dependency.latency-ms", latencyMillis());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.gradle.sample;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and bytes allocated (gc.alloc.rate.norm) per personalized greeting, rendered per request or served from the cache.
+ * Enabled with -Dbenchmark=true:
+ * <pre>
+ * ./mvnw test -Dtest=GreetingCacheBenchmarkTest -Dbenchmark=true
+ * </pre>
+ * The JSON results are written to target/jmh/greeting-cache.json
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GreetingCacheBenchmarkTest {
+
+    @Param({"1", "1000"})
+    int names;
+
+    private String[] nameValues;
+    private GreetingCache cache;
+    private int next;
+
+    @Setup
+    public void setup() {
+        nameValues = new String[names];
+        for(int i = 0; i < names; i++) {
+            nameValues[i] = "name-" + i;
+        }
+        cache = new GreetingCache(names, 1, TimeUnit.HOURS);
+    }
+
+    private String nextName() {
+        String name = nameValues[next];
+        next = next + 1 == nameValues.length ? 0 : next + 1;
+        return name;
+    }
+
+    @Benchmark
+    public Buffer rendered() {
+        return GreetingCache.render(nextName());
+    }
+
+    @Benchmark
+    public Buffer cached() {
+        return cache.get(nextName());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void benchmarkGreetingCache() throws Exception {
+        File results = new File("target/jmh/greeting-cache.json");
+        results.getParentFile().mkdirs();
+
+        new Runner(new OptionsBuilder()
+            .include(GreetingCacheBenchmarkTest.class.getName() + "\\.")
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(results.getPath())
+            .build()).run();
+    }
+}
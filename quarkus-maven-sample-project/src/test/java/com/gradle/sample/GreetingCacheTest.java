@@ -0,0 +1,92 @@
+package com.gradle.sample;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class GreetingCacheTest {
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    @Test
+    public void testHitReusesRenderedGreeting() {
+        GreetingCache cache = new GreetingCache(10, 1, TimeUnit.MINUTES, nanoClock::get);
+
+        Buffer greeting = cache.get("Alice");
+        assertEquals("Hello Alice from RESTEasy Reactive", greeting.toString());
+        assertSame(greeting, cache.get("Alice"));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvictedWhenFull() {
+        GreetingCache cache = new GreetingCache(2, 1, TimeUnit.MINUTES, nanoClock::get);
+
+        Buffer alice = cache.get("Alice");
+        cache.get("Bob");
+        cache.get("Alice");
+        cache.get("Carol");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertSame(alice, cache.get("Alice"));
+        cache.get("Bob");
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testExpiredEntryEvicted() {
+        GreetingCache cache = new GreetingCache(10, 1, TimeUnit.MINUTES, nanoClock::get);
+
+        Buffer greeting = cache.get("Alice");
+        nanoClock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+        assertNotSame(greeting, cache.get("Alice"));
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    // Only the cache lookup is measured, the response itself is written by the server and allocates per request
+    @Test
+    public void testCacheHitDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        GreetingCache cache = new GreetingCache(10, 1, TimeUnit.MINUTES);
+        int requests = 100_000;
+
+        long renderedBytes = allocatedBytesPerLookup(threads, requests, () -> GreetingCache.render("Alice"));
+        long cachedBytes = allocatedBytesPerLookup(threads, requests, () -> cache.get("Alice"));
+
+        assertTrue(renderedBytes > 0, "Rendering a greeting allocates");
+        assertEquals(0, cachedBytes, "Bytes allocated per cache hit");
+        assertEquals(1, cache.getMisses());
+    }
+
+    private static long allocatedBytesPerLookup(com.sun.management.ThreadMXBean threads, int requests, Runnable request) {
+        // warmup
+        for(int i = 0; i < requests; i++) {
+            request.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(threadId);
+        for(int i = 0; i < requests; i++) {
+            request.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - start) / requests;
+    }
+}
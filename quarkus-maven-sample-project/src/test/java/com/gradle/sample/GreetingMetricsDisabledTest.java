@@ -0,0 +1,44 @@
+package com.gradle.sample;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The application of the {@link MetricsBaselineBenchmarkTest} registers neither the {@link GreetingMetrics}, nor the
+ * route and filters of the {@link GreetingMetricsFilter}, nor the Micrometer registry.
+ */
+@QuarkusTest
+@TestProfile(MetricsBaselineBenchmarkTest.Profile.class)
+public class GreetingMetricsDisabledTest {
+
+    @Inject
+    Instance<GreetingMetrics> metrics;
+
+    @Inject
+    Instance<GreetingMetricsFilter> metricsFilter;
+
+    @Test
+    public void testMetricsNotRegistered() {
+        assertTrue(metrics.isUnsatisfied(), "GreetingMetrics is registered");
+        assertTrue(metricsFilter.isUnsatisfied(), "GreetingMetricsFilter is registered");
+
+        given()
+          .when().get("/hello")
+          .then()
+             .statusCode(200)
+             .body(is("Hello from RESTEasy Reactive"));
+
+        given()
+          .when().get("/q/metrics")
+          .then()
+             .statusCode(404);
+    }
+}
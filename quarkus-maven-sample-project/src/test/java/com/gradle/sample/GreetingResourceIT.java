@@ -1,8 +1,168 @@
 package com.gradle.sample;
 
+import io.quarkus.test.common.http.TestHTTPResource;
 import io.quarkus.test.junit.QuarkusIntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @QuarkusIntegrationTest
 public class GreetingResourceIT extends GreetingResourceTest {
     // Execute the same tests but in packaged mode.
+
+    // Baseline per package type, recorded with -Dload.baseline.update=true
+    private static final Path BASELINE_FILE = Paths.get("src", "test", "resources", "load-baseline.properties");
+
+    private static final Path REPORT_DIRECTORY = Paths.get("target", "load-report");
+
+    @TestHTTPResource("/")
+    URI rootUri;
+
+    /**
+     * Closed and open loop load against the packaged application, failing when the throughput or the p99 latency regresses
+     * past the baseline of the package type by more than the tolerance (load.tolerance, 25% by default). The baseline file
+     * holds, per package type (jar, uber-jar, native):
+     * <ul>
+     *     <li>&lt;package type&gt;.closed.throughput: requests/s of the closed loop, must not drop</li>
+     *     <li>&lt;package type&gt;.closed.p99-ms: p99 latency of the closed loop corrected for coordinated omission, must not rise</li>
+     *     <li>&lt;package type&gt;.open.p99-ms: p99 latency of the open loop, must not rise</li>
+     * </ul>
+     * The committed values are conservative bounds, the baseline of a machine is recorded with -Dload.baseline.update=true
+     * once the load ran without failed requests. A package type without baseline fails the test on CI (CI environment
+     * variable) or with -Dload.baseline.required=true, it is skipped otherwise, nothing being checked but the failed requests.
+     */
+    @Test
+    public void testLoad() throws Exception {
+        URI uri = rootUri.resolve(System.getProperty("load.endpoint", "/hello"));
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-s", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration-s", 10));
+        int closedConcurrency = Integer.getInteger("load.concurrency", 16);
+        int openConcurrency = Integer.getInteger("load.open.concurrency", 64);
+        int openRate = Integer.getInteger("load.open.rate", 500);
+
+        LoadGenerator loadGenerator = new LoadGenerator();
+        LoadGenerator.Result closed = loadGenerator.runClosedLoop(uri, closedConcurrency, warmup, duration);
+        LoadGenerator.Result open = loadGenerator.runOpenLoop(uri, openConcurrency, openRate, warmup, duration);
+
+        String variant = packageVariant();
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        metrics.put("closed.throughput", closed.getThroughput());
+        metrics.put("closed.p99-ms", closed.getCorrectedLatencyMillis(99));
+        metrics.put("open.p99-ms", open.getCorrectedLatencyMillis(99));
+
+        Properties baseline = loadBaseline();
+        double tolerance = Double.parseDouble(System.getProperty("load.tolerance", "0.25"));
+        List<String> regressions = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        metrics.forEach((metric, value) -> {
+            String baselineValue = baseline.getProperty(variant + "." + metric);
+            if(baselineValue == null) {
+                missing.add(variant + "." + metric);
+                return;
+            }
+            double expected = Double.parseDouble(baselineValue);
+            // throughput must not drop, latencies must not rise
+            boolean regressed = metric.endsWith("throughput") ? value < expected * (1 - tolerance) : value > expected * (1 + tolerance);
+            if(regressed) {
+                regressions.add(String.format(Locale.ROOT, "%s %s: %.2f, baseline %.2f", variant, metric, value, expected));
+            }
+        });
+
+        writeReport(variant, uri, openRate, closed, open, regressions);
+
+        assertEquals(0, closed.getErrors() + open.getErrors(), "Failed requests");
+        if(Boolean.getBoolean("load.baseline.update")) {
+            metrics.forEach((metric, value) -> baseline.setProperty(variant + "." + metric, String.format(Locale.ROOT, "%.2f", value)));
+            storeBaseline(baseline);
+            return;
+        }
+
+        String missingMessage = "No load baseline for " + missing + " in " + BASELINE_FILE + ", record it with -Dload.baseline.update=true";
+        if(Boolean.getBoolean("load.baseline.required") || System.getenv("CI") != null) {
+            assertTrue(missing.isEmpty(), missingMessage);
+        } else {
+            assumeTrue(missing.isEmpty(), missingMessage + ", regressions are not checked");
+        }
+        assertTrue(regressions.isEmpty(), "Load regressions past the baseline: " + regressions);
+    }
+
+    /**
+     * @return package type of the application under test: jar, uber-jar or native
+     */
+    private static String packageVariant() throws IOException {
+        Properties artifact = new Properties();
+        try (Reader reader = Files.newBufferedReader(Paths.get("target", "quarkus-artifact.properties"), StandardCharsets.UTF_8)) {
+            artifact.load(reader);
+        }
+
+        String type = artifact.getProperty("type", "");
+        String path = artifact.getProperty("path", "");
+        if(type.equals("native")) {
+            return "native";
+        }
+        return path.endsWith("quarkus-run.jar") ? "jar" : path.endsWith("-runner.jar") ? "uber-jar" : type;
+    }
+
+    private static Properties loadBaseline() throws IOException {
+        Properties baseline = new Properties();
+        if(Files.exists(BASELINE_FILE)) {
+            try (Reader reader = Files.newBufferedReader(BASELINE_FILE, StandardCharsets.UTF_8)) {
+                baseline.load(reader);
+            }
+        }
+        return baseline;
+    }
+
+    private static void storeBaseline(Properties baseline) throws IOException {
+        // sorted and without timestamp, so that recording a baseline only changes its values
+        List<String> lines = new ArrayList<>();
+        lines.add("# Load baseline per package type, see GreetingResourceIT");
+        new TreeSet<>(baseline.stringPropertyNames()).forEach(key -> lines.add(key + "=" + baseline.getProperty(key)));
+        Files.write(BASELINE_FILE, lines, StandardCharsets.UTF_8);
+    }
+
+    private static void writeReport(String variant, URI uri, int openRate, LoadGenerator.Result closed, LoadGenerator.Result open, List<String> regressions) throws IOException {
+        StringBuilder report = new StringBuilder("{\n");
+        report.append("  \"variant\": \"").append(variant).append("\",\n");
+        report.append("  \"endpoint\": \"").append(uri.getPath()).append("\",\n");
+        report.append("  \"java\": \"").append(System.getProperty("java.version")).append("\",\n");
+        report.append("  \"processors\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n");
+        report.append("  \"closed\": ").append(toJson(closed, null)).append(",\n");
+        report.append("  \"open\": ").append(toJson(open, openRate)).append(",\n");
+        report.append("  \"regressions\": [");
+        for(int i = 0; i < regressions.size(); i++) {
+            report.append(i > 0 ? ", " : "").append('"').append(regressions.get(i)).append('"');
+        }
+        report.append("]\n}\n");
+
+        Files.createDirectories(REPORT_DIRECTORY);
+        Files.write(REPORT_DIRECTORY.resolve(variant + ".json"), report.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String toJson(LoadGenerator.Result result, Integer rate) {
+        return String.format(Locale.ROOT, "{\"concurrency\": %d, %s\"requests\": %d, \"errors\": %d, \"throughput\": %.2f, "
+                + "\"p50Ms\": %.3f, \"p99Ms\": %.3f, \"p999Ms\": %.3f, \"maxMs\": %.3f, "
+                + "\"correctedP50Ms\": %.3f, \"correctedP99Ms\": %.3f, \"correctedP999Ms\": %.3f}",
+            result.getConcurrency(), rate != null ? "\"rate\": " + rate + ", " : "", result.getRequests(), result.getErrors(), result.getThroughput(),
+            result.getLatencyMillis(50), result.getLatencyMillis(99), result.getLatencyMillis(99.9), result.getMaxLatencyMillis(),
+            result.getCorrectedLatencyMillis(50), result.getCorrectedLatencyMillis(99), result.getCorrectedLatencyMillis(99.9));
+    }
 }
@@ -1,14 +1,59 @@
 package com.gradle.sample;
 
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusIntegrationTest;
 import io.quarkus.test.junit.QuarkusTest;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 public class GreetingResourceTest {
 
+    private static final long MB = 1024 * 1024;
+
+    // Size of the streamed batch request body
+    private static final long BATCH_SIZE_BYTES = 4 * MB;
+
+    // Size of the large streamed batch request body, checked with -Dbatch.size-mb=1024 for a 1 GB body
+    private static final long LARGE_BATCH_SIZE_BYTES = Long.getLong("batch.size-mb", 0) * MB;
+
+    // Ceiling of the server tenured heap growth while streaming the large batch, whatever its size
+    private static final long MAX_HEAP_GROWTH_BYTES = 16 * MB;
+
+    // Heap pools of the old generation, named after the collector (G1 Old Gen, Tenured Gen, old generation space...)
+    private static final Pattern TENURED_POOL = Pattern.compile("id=\"[^\"]*(?i:old|tenured)[^\"]*\"");
+
+    // Maximum wait for the next response bytes, the body being sent meanwhile
+    private static final int READ_TIMEOUT_MILLIS = 60_000;
+
+    // greeting.batch.max-body-size
+    private static final long BATCH_MAX_BODY_SIZE_BYTES = 2048 * MB;
+
+    @TestHTTPResource("/hello/batch")
+    URI batchUri;
+
     @Test
     public void testHelloEndpoint() {
         given()
@@ -18,4 +63,326 @@ public class GreetingResourceTest {
              .body(is("Hello from RESTEasy Reactive"));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testHelloOnEventLoopEndpoint() {
+        given()
+          .when().get("/hello/event-loop")
+          .then()
+             .statusCode(200)
+             .body(is("Hello from RESTEasy Reactive"));
+    }
+
+    @Test
+    public void testHelloOnWorkerEndpoint() {
+        given()
+          .when().get("/hello/worker")
+          .then()
+             .statusCode(200)
+             .body(is("Hello from RESTEasy Reactive"));
+    }
+
+    @Test
+    public void testHelloOnVirtualThreadEndpoint() {
+        given()
+          .when().get("/hello/virtual-thread")
+          .then()
+             .statusCode(200)
+             .body(is("Hello from RESTEasy Reactive"));
+    }
+
+    @Test
+    public void testHelloNameEndpoint() {
+        for(int i = 0; i < 2; i++) {
+            given()
+              .when().get("/hello/Zoë")
+              .then()
+                 .statusCode(200)
+                 .body(is("Hello Zoë from RESTEasy Reactive"));
+        }
+    }
+
+    @Test
+    public void testMetricsEndpoint() {
+        given()
+          .when().get("/hello")
+          .then()
+             .statusCode(200);
+
+        given()
+          .when().get("/q/metrics")
+          .then()
+             .statusCode(200)
+             .body(containsString("greeting_requests_total{method=\"hello\",status=\"2xx\""))
+             .body(containsString("greeting_request_duration_seconds_bucket{method=\"hello\""))
+             .body(containsString("greeting_requests_active{method=\"hello\""));
+    }
+
+    @Test
+    public void testHelloBatchEndpoint() {
+        String greetings = given()
+          .contentType("text/plain")
+          .body("Alice\r\n\nB\"ob\nZoë")
+          .when().post("/hello/batch")
+          .then()
+             .statusCode(200)
+             .extract().asString();
+
+        assertEquals(Arrays.asList(
+            "{\"greeting\":\"Hello Alice from RESTEasy Reactive\"}",
+            "{\"greeting\":\"Hello B\\\"ob from RESTEasy Reactive\"}",
+            "{\"greeting\":\"Hello Zoë from RESTEasy Reactive\"}"
+        ), lines(greetings));
+    }
+
+    @Test
+    public void testHelloBatchEndpointEndsWithErrorOnLongName() {
+        String greetings = given()
+          .contentType("text/plain")
+          .body("Alice\n" + "x".repeat(GreetingBatch.MAX_NAME_LENGTH + 1) + "\nBob")
+          .when().post("/hello/batch")
+          .then()
+             .statusCode(200)
+             .extract().asString();
+
+        // the greetings before the long name are kept, the following names are not greeted
+        assertEquals(Arrays.asList(
+            "{\"greeting\":\"Hello Alice from RESTEasy Reactive\"}",
+            "{\"error\":\"Names are limited to " + GreetingBatch.MAX_NAME_LENGTH + " bytes\"}"
+        ), lines(greetings));
+    }
+
+    @Test
+    public void testHelloBatchEndpointLimitsBody() throws IOException {
+        // only the headers are sent, the body size being checked upfront
+        try (Socket socket = new Socket(batchUri.getHost(), batchUri.getPort())) {
+            socket.getOutputStream().write(requestHeaders(BATCH_MAX_BODY_SIZE_BYTES + 1));
+            String statusLine = readLine(socket.getInputStream());
+            assertTrue(statusLine.startsWith("HTTP/1.1 413 "), statusLine);
+        }
+    }
+
+    @Test
+    public void testBodyLimitedOutsideOfBatchEndpoint() {
+        given()
+          .contentType("text/plain")
+          .body(new byte[(int) (11 * MB)])
+          .when().post("/hello")
+          .then()
+             .statusCode(413);
+    }
+
+    @Test
+    public void testHelloBatchEndpointStreamsBody() throws Exception {
+        NameStream names = new NameStream(BATCH_SIZE_BYTES);
+        assertEquals(names.getCount(), streamBatch(names, null));
+    }
+
+    /**
+     * Streams the large batch, reporting its throughput to target/load-benchmark/batch-streaming.md. Fails when the used
+     * tenured heap of the server grows by more than {@link #MAX_HEAP_GROWTH_BYTES}, whatever the body size: a buffered
+     * body would be promoted. The collection is forced when the application runs in the test process only, the packaged
+     * one being better checked with a bounded heap (-Dquarkus.test.arg-line=-Xmx256m).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "batch.size-mb", matches = "[1-9][0-9]*")
+    public void testHelloBatchEndpointStreamsLargeBody() throws Exception {
+        long heapBefore = usedServerHeap();
+
+        NameStream names = new NameStream(LARGE_BATCH_SIZE_BYTES);
+        long[] heapGrowth = new long[1];
+        long start = System.nanoTime();
+        long greetings = streamBatch(names, () -> heapGrowth[0] = usedServerHeap() - heapBefore);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(names.getCount(), greetings);
+        String throughput = String.format(Locale.ROOT, "%.0f greetings/s, %.1f MB/s", greetings / seconds, names.getLength() / seconds / MB);
+        writeBatchReport(names, seconds, throughput, heapGrowth[0]);
+        assertTrue(heapGrowth[0] < MAX_HEAP_GROWTH_BYTES, "Server heap grew by " + heapGrowth[0] + " bytes while streaming a "
+            + names.getLength() + " bytes body at " + throughput);
+    }
+
+    /**
+     * @param onQuarterRead called once a quarter of the greetings is read, most of the body being still to be sent
+     * @return number of greetings read
+     */
+    private long streamBatch(NameStream names, Runnable onQuarterRead) throws Exception {
+        long greetings = 0;
+
+        // raw HTTP/1.1 exchange, the body being sent while the greetings are read
+        try (Socket socket = new Socket(batchUri.getHost(), batchUri.getPort())) {
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            IOException[] sendFailure = new IOException[1];
+            Thread sender = new Thread(() -> {
+                try {
+                    send(socket, names);
+                } catch (IOException e) {
+                    sendFailure[0] = e;
+                }
+            }, "batch-sender");
+            // not joined when the response can't be read, the socket being closed
+            sender.setDaemon(true);
+            sender.start();
+
+            InputStream response = new BufferedInputStream(socket.getInputStream());
+            assertEquals("HTTP/1.1 200 OK", readLine(response));
+            while(!readLine(response).isEmpty()) {
+                // headers, the response is chunked
+            }
+
+            for(int chunkSize = readChunkSize(response); chunkSize > 0; chunkSize = readChunkSize(response)) {
+                for(int i = 0; i < chunkSize; i++) {
+                    // one greeting object per line
+                    if(response.read() == '{' && ++greetings == names.getCount() / 4 && onQuarterRead != null) {
+                        onQuarterRead.run();
+                    }
+                }
+                readLine(response);
+            }
+            sender.join();
+            if(sendFailure[0] != null) {
+                throw sendFailure[0];
+            }
+        }
+        return greetings;
+    }
+
+    private void send(Socket socket, NameStream names) throws IOException {
+        OutputStream request = socket.getOutputStream();
+        request.write(requestHeaders(names.getLength()));
+        names.transferTo(request);
+        request.flush();
+    }
+
+    private byte[] requestHeaders(long contentLength) {
+        return ("POST " + batchUri.getPath() + " HTTP/1.1\r\n"
+            + "Host: " + batchUri.getHost() + ":" + batchUri.getPort() + "\r\n"
+            + "Content-Type: text/plain\r\n"
+            + "Content-Length: " + contentLength + "\r\n"
+            + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for(int c = input.read(); c != '\n'; c = input.read()) {
+            if(c < 0) {
+                throw new EOFException("Response ended before " + line);
+            }
+            if(c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private static int readChunkSize(InputStream input) throws IOException {
+        String chunkSize = readLine(input);
+        int extension = chunkSize.indexOf(';');
+        return Integer.parseInt(extension < 0 ? chunkSize : chunkSize.substring(0, extension), 16);
+    }
+
+    private static List<String> lines(String body) {
+        return Arrays.asList(body.lines().filter(line -> !line.isEmpty()).toArray(String[]::new));
+    }
+
+    /**
+     * @return used bytes of the tenured heap pools of the server, from its JVM metrics
+     */
+    private long usedServerHeap() {
+        if(!getClass().isAnnotationPresent(QuarkusIntegrationTest.class)) {
+            // the server runs in the test process, its live objects are promoted by a full collection
+            System.gc();
+        }
+        String metrics = given()
+          .when().get("/q/metrics")
+          .then()
+             .statusCode(200)
+             .extract().asString();
+
+        long used = 0;
+        boolean tenuredPool = false;
+        for(String line : metrics.split("\n")) {
+            if(line.startsWith("jvm_memory_used_bytes{") && line.contains("area=\"heap\"") && TENURED_POOL.matcher(line).find()) {
+                used += (long) Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                tenuredPool = true;
+            }
+        }
+        assertTrue(tenuredPool, "No tenured heap pool in the server JVM metrics");
+        return used;
+    }
+
+    private static void writeBatchReport(NameStream names, double seconds, String throughput, long heapGrowth) throws IOException {
+        Path reportFile = Paths.get("target", "load-benchmark", "batch-streaming.md");
+        Files.createDirectories(reportFile.getParent());
+        Files.write(reportFile, Arrays.asList(
+            "# Batch streaming",
+            "",
+            "| Body (bytes) | Greetings | Duration (s) | Throughput | Server heap growth (bytes) |",
+            "|---|---|---|---|---|",
+            String.format(Locale.ROOT, "| %d | %d | %.2f | %s | %d |", names.getLength(), names.getCount(), seconds, throughput, heapGrowth)
+        ), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Newline-delimited names generated as they are read, up to a size.
+     */
+    private static final class NameStream extends InputStream {
+        private final long count;
+        private final long length;
+        private long next;
+        private byte[] name = new byte[0];
+        private int namePosition;
+
+        private NameStream(long size) {
+            // names fitting in the size, known upfront to send the content length and check the greetings
+            long names = 0;
+            long bytes = 0;
+            while(bytes < size) {
+                bytes += nameLength(names++);
+            }
+            this.count = names;
+            this.length = bytes;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        private static int nameLength(long index) {
+            // "name-" + index + "\n"
+            return 6 + Long.toString(index).length();
+        }
+
+        @Override
+        public int read() {
+            if(namePosition == name.length && !nextName()) {
+                return -1;
+            }
+            return name[namePosition++];
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            int read = 0;
+            while(read < length && (namePosition < name.length || nextName())) {
+                int copied = Math.min(length - read, name.length - namePosition);
+                System.arraycopy(name, namePosition, bytes, offset + read, copied);
+                namePosition += copied;
+                read += copied;
+            }
+            return read == 0 && length > 0 ? -1 : read;
+        }
+
+        private boolean nextName() {
+            if(next == count) {
+                return false;
+            }
+            name = ("name-" + next++ + "\n").getBytes(StandardCharsets.US_ASCII);
+            namePosition = 0;
+            return true;
+        }
+    }
+}
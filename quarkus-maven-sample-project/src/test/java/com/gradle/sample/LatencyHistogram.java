@@ -0,0 +1,109 @@
+package com.gradle.sample;
+
+/**
+ * Latency histogram in nanoseconds, with the HdrHistogram log-linear layout: values are counted in power of two buckets,
+ * each split into linear sub-buckets, so that any recorded value is known within 1% (2 significant digits) with a fixed
+ * memory footprint. Values above {@link #MAX_VALUE} (about 18 minutes) are recorded as the maximum.
+ * <p>
+ * Not thread safe, one histogram is recorded per thread and the histograms are then added.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+    static final long MAX_VALUE = (1L << 40) - 1;
+
+    private final long[] counts = new long[countsIndex(MAX_VALUE) + 1];
+    private long totalCount;
+    private long max;
+
+    void recordValue(long value) {
+        recordValue(value, 1);
+    }
+
+    private void recordValue(long value, long count) {
+        long clamped = Math.max(0, Math.min(value, MAX_VALUE));
+        counts[countsIndex(clamped)] += count;
+        totalCount += count;
+        max = Math.max(max, clamped);
+    }
+
+    /**
+     * Records a value, and corrects the coordinated omission of a load generator which waited for it: the values that the
+     * requests it didn't send while waiting would have had, at the expected interval, are recorded too.
+     */
+    void recordValueWithExpectedInterval(long value, long expectedInterval) {
+        recordValueWithExpectedInterval(value, expectedInterval, 1);
+    }
+
+    private void recordValueWithExpectedInterval(long value, long expectedInterval, long count) {
+        recordValue(value, count);
+        if(expectedInterval <= 0) {
+            return;
+        }
+        for(long missingValue = value - expectedInterval; missingValue >= expectedInterval; missingValue -= expectedInterval) {
+            recordValue(missingValue, count);
+        }
+    }
+
+    /**
+     * @return a copy of this histogram, corrected for coordinated omission as if its values were recorded with the interval
+     */
+    LatencyHistogram copyCorrectedForCoordinatedOmission(long expectedInterval) {
+        LatencyHistogram corrected = new LatencyHistogram();
+        for(int index = 0; index < counts.length; index++) {
+            if(counts[index] > 0) {
+                corrected.recordValueWithExpectedInterval(highestEquivalentValue(index), expectedInterval, counts[index]);
+            }
+        }
+        return corrected;
+    }
+
+    void add(LatencyHistogram other) {
+        for(int index = 0; index < counts.length; index++) {
+            counts[index] += other.counts[index];
+        }
+        totalCount += other.totalCount;
+        max = Math.max(max, other.max);
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    long getMaxValue() {
+        return max;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return highest value of the bucket holding the percentile, 0 if empty
+     */
+    long getValueAtPercentile(double percentile) {
+        long countAtPercentile = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * totalCount));
+        long cumulativeCount = 0;
+        for(int index = 0; index < counts.length; index++) {
+            cumulativeCount += counts[index];
+            if(cumulativeCount >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(index), max);
+            }
+        }
+        return 0;
+    }
+
+    private static int countsIndex(long value) {
+        int bucketIndex = Math.max(0, (63 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK)) - (SUB_BUCKET_BITS - 1));
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return (bucketIndex + 1) * SUB_BUCKET_HALF_COUNT + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+    }
+
+    private static long highestEquivalentValue(int countsIndex) {
+        int bucketIndex = Math.max(0, countsIndex / SUB_BUCKET_HALF_COUNT - 1);
+        int subBucketIndex = countsIndex - (bucketIndex + 1) * SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        long lowestValue = (long) subBucketIndex << bucketIndex;
+        return lowestValue + (1L << bucketIndex) - 1;
+    }
+}
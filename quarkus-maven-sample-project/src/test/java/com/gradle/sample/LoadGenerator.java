@@ -0,0 +1,182 @@
+package com.gradle.sample;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator, recording the latencies of the requests sent after the warmup in a {@link LatencyHistogram}:
+ * <ul>
+ *     <li>closed loop: each of the concurrent clients sends its next request as soon as the previous one completed</li>
+ *     <li>open loop: requests are scheduled at a fixed rate and shared by the concurrent clients, their latency is measured
+ *     from their scheduled time, so that the requests delayed by a slow one are not omitted</li>
+ * </ul>
+ */
+final class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    Result runClosedLoop(URI uri, int concurrency, Duration warmup, Duration duration) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        long recordStart = System.nanoTime() + warmup.toNanos();
+        long end = recordStart + duration.toNanos();
+
+        Result result = run(concurrency, () -> {
+            ClientResult clientResult = new ClientResult();
+            long now = System.nanoTime();
+            while(now < end) {
+                long sent = now;
+                boolean succeeded = send(request);
+                now = System.nanoTime();
+                if(sent >= recordStart) {
+                    clientResult.record(now - sent, succeeded);
+                }
+            }
+            return clientResult;
+        });
+
+        // a client waiting for a slow request didn't send the requests it would have sent at its usual pace
+        long expectedInterval = result.latencies.getValueAtPercentile(50);
+        return result.complete(concurrency, duration, result.latencies.copyCorrectedForCoordinatedOmission(expectedInterval));
+    }
+
+    Result runOpenLoop(URI uri, int concurrency, int requestsPerSecond, Duration warmup, Duration duration) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        long start = System.nanoTime();
+        long recordStart = start + warmup.toNanos();
+        long end = recordStart + duration.toNanos();
+        long interval = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        AtomicLong nextRequest = new AtomicLong();
+
+        Result result = run(concurrency, () -> {
+            ClientResult clientResult = new ClientResult();
+            for(long scheduled = start + nextRequest.getAndIncrement() * interval; scheduled < end; scheduled = start + nextRequest.getAndIncrement() * interval) {
+                for(long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean succeeded = send(request);
+                if(scheduled >= recordStart) {
+                    clientResult.record(System.nanoTime() - scheduled, succeeded);
+                }
+            }
+            return clientResult;
+        });
+
+        // latencies are measured from the scheduled time, they are already corrected
+        return result.complete(concurrency, duration, result.latencies);
+    }
+
+    private boolean send(HttpRequest request) throws InterruptedException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static Result run(int concurrency, Callable<ClientResult> client) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<ClientResult>> futures = new ArrayList<>(concurrency);
+            for(int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(client));
+            }
+
+            Result result = new Result();
+            for(Future<ClientResult> future : futures) {
+                ClientResult clientResult = future.get();
+                result.latencies.add(clientResult.latencies);
+                result.errors += clientResult.errors;
+            }
+            return result;
+        } finally {
+            clients.shutdownNow();
+            clients.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static final class ClientResult {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private int errors;
+
+        void record(long latencyNanos, boolean succeeded) {
+            if(succeeded) {
+                latencies.recordValue(latencyNanos);
+            } else {
+                errors++;
+            }
+        }
+    }
+
+    /**
+     * Latencies of the successful requests sent after the warmup.
+     */
+    static final class Result {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private LatencyHistogram correctedLatencies;
+        private int errors;
+        private int concurrency;
+        private Duration duration;
+
+        private Result complete(int concurrency, Duration duration, LatencyHistogram correctedLatencies) {
+            this.concurrency = concurrency;
+            this.duration = duration;
+            this.correctedLatencies = correctedLatencies;
+            return this;
+        }
+
+        int getConcurrency() {
+            return concurrency;
+        }
+
+        long getRequests() {
+            return latencies.getTotalCount();
+        }
+
+        int getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return successful requests per second
+         */
+        double getThroughput() {
+            return latencies.getTotalCount() / (duration.toNanos() / 1e9);
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return latency in milliseconds at the percentile, as measured
+         */
+        double getLatencyMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        double getMaxLatencyMillis() {
+            return latencies.getMaxValue() / 1e6;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return latency in milliseconds at the percentile, corrected for coordinated omission
+         */
+        double getCorrectedLatencyMillis(double percentile) {
+            return correctedLatencies.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+}
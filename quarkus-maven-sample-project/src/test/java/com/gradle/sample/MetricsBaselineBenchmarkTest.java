@@ -0,0 +1,34 @@
+package com.gradle.sample;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Map;
+
+/**
+ * Baseline arm of the {@link MetricsOverheadBenchmarkTest}: the application is built without the {@link GreetingMetrics},
+ * its route and filters, nor Micrometer, as checked by {@link GreetingMetricsDisabledTest}.
+ */
+@QuarkusTest
+@TestProfile(MetricsBaselineBenchmarkTest.Profile.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class MetricsBaselineBenchmarkTest extends MetricsOverheadBenchmarkTest {
+
+    @Override
+    protected boolean withMetrics() {
+        return false;
+    }
+
+    public static class Profile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            // build time properties, the application of the profile is built again
+            return Map.of(
+                "greeting.metrics.enabled", "false",
+                "quarkus.micrometer.enabled", "false");
+        }
+    }
+}
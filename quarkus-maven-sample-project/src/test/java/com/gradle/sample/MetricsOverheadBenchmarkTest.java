@@ -0,0 +1,132 @@
+package com.gradle.sample;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput at saturation of /hello with the {@link GreetingMetrics} and the Quarkus HTTP server metrics, compared to
+ * the {@link MetricsBaselineBenchmarkTest} application built without them, enabled with -Dbenchmark=true:
+ * <pre>
+ * ./mvnw test -Dtest='Metrics*BenchmarkTest' -Dbenchmark=true -Dbenchmark.breakdown-sample-rate=0.01
+ * </pre>
+ * Each arm is measured in its own application, the second one to run compares both. Fails when the overhead exceeds
+ * benchmark.max-overhead (1% by default), the report is written to target/load-benchmark/metrics-overhead.md
+ */
+@QuarkusTest
+@TestProfile(MetricsOverheadBenchmarkTest.Profile.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class MetricsOverheadBenchmarkTest {
+
+    // Throughput per round of each arm, kept in the system properties shared by the applications of both arms
+    private static final String WITH_METRICS_KEY = "benchmark.metrics-overhead.with-metrics";
+    private static final String WITHOUT_METRICS_KEY = "benchmark.metrics-overhead.without-metrics";
+
+    @TestHTTPResource("/hello")
+    URI helloUri;
+
+    /**
+     * @return whether the application of the arm is instrumented
+     */
+    protected boolean withMetrics() {
+        return true;
+    }
+
+    @Test
+    public void benchmarkMetricsOverhead() throws Exception {
+        int rounds = Integer.getInteger("benchmark.rounds", 3);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 64);
+        Duration warmup = Duration.ofSeconds(Long.getLong("benchmark.warmup-s", 3));
+        Duration duration = Duration.ofSeconds(Long.getLong("benchmark.duration-s", 10));
+        double maxOverhead = Double.parseDouble(System.getProperty("benchmark.max-overhead", "0.01"));
+
+        LoadGenerator loadGenerator = new LoadGenerator();
+        StringBuilder throughputs = new StringBuilder();
+        for(int round = 1; round <= rounds; round++) {
+            LoadGenerator.Result result = loadGenerator.runClosedLoop(helloUri, concurrency, warmup, duration);
+            assertEquals(0, result.getErrors(), "Failed requests in round " + round);
+            throughputs.append(round > 1 ? "," : "").append(result.getThroughput());
+        }
+        System.setProperty(withMetrics() ? WITH_METRICS_KEY : WITHOUT_METRICS_KEY, throughputs.toString());
+
+        String withMetrics = System.getProperty(WITH_METRICS_KEY);
+        String withoutMetrics = System.getProperty(WITHOUT_METRICS_KEY);
+        if(withMetrics == null || withoutMetrics == null) {
+            // compared once the other arm is measured
+            return;
+        }
+
+        double[] with = parseThroughputs(withMetrics);
+        double[] without = parseThroughputs(withoutMetrics);
+        List<String> rows = new ArrayList<>();
+        for(int round = 0; round < Math.min(with.length, without.length); round++) {
+            rows.add(row("Round " + (round + 1), without[round], with[round]));
+        }
+        double overhead = 1 - mean(with) / mean(without);
+        rows.add(row("Mean", mean(without), mean(with)));
+        writeReport(rows, concurrency, duration);
+
+        // The load generator runs in the test process, on the machine of the application: both compete for the CPU, so the
+        // overhead is measured on the throughput left to the application, and is only comparable between runs of one machine
+        assertTrue(overhead < maxOverhead, String.format(Locale.ROOT, "Metrics overhead %.2f%% exceeds %.2f%%", overhead * 100, maxOverhead * 100));
+    }
+
+    private static double[] parseThroughputs(String throughputs) {
+        return Arrays.stream(throughputs.split(",")).mapToDouble(Double::parseDouble).toArray();
+    }
+
+    private static double mean(double[] values) {
+        return Arrays.stream(values).average().orElse(0);
+    }
+
+    private static String row(String round, double withoutMetrics, double withMetrics) {
+        return String.format(Locale.ROOT, "| %s | %.0f | %.0f | %.2f%% |", round, withoutMetrics, withMetrics, (1 - withMetrics / withoutMetrics) * 100);
+    }
+
+    private static void writeReport(List<String> rows, int concurrency, Duration duration) throws IOException {
+        List<String> report = new ArrayList<>();
+        report.add("# Metrics overhead benchmark");
+        report.add("");
+        report.add(String.format(Locale.ROOT, "/hello at concurrency %d, closed loop, %d s per round, phase breakdown sample rate %s.",
+            concurrency, duration.getSeconds(), Profile.breakdownSampleRate()));
+        report.add("");
+        report.add("| Round | Without metrics (req/s) | With metrics (req/s) | Overhead |");
+        report.add("|---|---|---|---|");
+        report.addAll(rows);
+
+        Path reportFile = Paths.get("target", "load-benchmark", "metrics-overhead.md");
+        Files.createDirectories(reportFile.getParent());
+        Files.write(reportFile, report, StandardCharsets.UTF_8);
+    }
+
+    public static class Profile implements QuarkusTestProfile {
+
+        static String breakdownSampleRate() {
+            return System.getProperty("benchmark.breakdown-sample-rate", "0");
+        }
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("greeting.metrics.breakdown-sample-rate", breakdownSampleRate());
+        }
+    }
+}
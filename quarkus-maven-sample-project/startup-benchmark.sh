@@ -0,0 +1,190 @@
+#!/usr/bin/env bash
+
+# Builds the application for each package type variant, then launches each variant several times and records:
+# - the time from process start to the first 200 OK response of the endpoint
+# - the resident set size (RSS) once the first request is served
+# - the latency of the first requests
+# A comparison report is written to target/startup-benchmark/report.md
+#
+# Each variant is launched from the target directory right after its build: an AppCDS archive is only used (-Xshare:on)
+# with the exact jar it was created for, at the same location and with the same modification time.
+#
+# Environment variables:
+# - VARIANTS: variants to benchmark among jar, uber-jar, uber-jar-appcds and native (default: all but native)
+# - RUNS: number of launches per variant (default: 5)
+# - REQUESTS: number of requests whose latency is recorded per launch (default: 1000)
+# - ENDPOINT: path of the endpoint (default: /hello)
+# - PORT: HTTP port of the application (default: 8090)
+# - TIMEOUT: maximum number of seconds to wait for the first 200 OK (default: 60)
+
+VARIANTS=${VARIANTS:-"jar uber-jar uber-jar-appcds"}
+RUNS=${RUNS:-5}
+REQUESTS=${REQUESTS:-1000}
+ENDPOINT=${ENDPOINT:-/hello}
+PORT=${PORT:-8090}
+TIMEOUT=${TIMEOUT:-60}
+
+benchmarkDir="target/startup-benchmark"
+
+# results are kept out of the target directory while the variants are built, then copied to the benchmark directory
+resultsDir="/tmp/startup-benchmark"
+
+function nowMillis() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+function buildVariant() {
+    local variant=$1
+    local buildLog="/tmp/startup-benchmark-build-${variant}.log"
+
+    echo "Build ${variant}"
+    case ${variant} in
+        jar)
+            ./mvnw -B clean package -DskipTests -Dquarkus.package.type=fast-jar -Dquarkus.package.create-appcds=false > ${buildLog} 2>&1
+            ;;
+        uber-jar)
+            ./mvnw -B clean package -DskipTests -Dquarkus.package.type=uber-jar -Dquarkus.package.create-appcds=false > ${buildLog} 2>&1
+            ;;
+        uber-jar-appcds)
+            ./mvnw -B clean package -DskipTests -Dquarkus.package.type=uber-jar -Dquarkus.package.create-appcds=true > ${buildLog} 2>&1
+            ;;
+        native)
+            ./mvnw -B clean package -DskipTests -Dnative > ${buildLog} 2>&1
+            ;;
+        *)
+            echo "ERROR - unknown variant ${variant}"
+            exit 1
+            ;;
+    esac
+
+    if [ $? != 0 ]
+    then
+        echo "ERROR - build of ${variant} failed, see ${buildLog}"
+        exit 1
+    fi
+}
+
+# Launches the variant from the target directory, the application output is kept next to the results
+function launchVariant() {
+    local variant=$1
+    local applicationLog=$2
+    local javaOptions="-Dquarkus.http.port=${PORT}"
+
+    case ${variant} in
+        jar)
+            java ${javaOptions} -jar target/quarkus-app/quarkus-run.jar > ${applicationLog} 2>&1 &
+            ;;
+        uber-jar)
+            java ${javaOptions} -jar target/*-runner.jar > ${applicationLog} 2>&1 &
+            ;;
+        uber-jar-appcds)
+            # fails instead of silently starting without the archive if it doesn't match the jar
+            java ${javaOptions} -XX:SharedArchiveFile=target/app-cds.jsa -Xshare:on -jar target/*-runner.jar > ${applicationLog} 2>&1 &
+            ;;
+        native)
+            ./target/*-runner ${javaOptions} > ${applicationLog} 2>&1 &
+            ;;
+    esac
+
+    echo $!
+}
+
+# Appends "<time to first 200 OK in ms> <rss in KB>" to the startup results and the request latencies (ms) to the latency results
+function runVariant() {
+    local variant=$1
+    local run=$2
+    local url="http://localhost:${PORT}${ENDPOINT}"
+
+    local applicationLog="${resultsDir}/${variant}/application-${run}.log"
+
+    local start=$(nowMillis)
+    local pid=$(launchVariant ${variant} ${applicationLog})
+
+    local status=""
+    while [ "${status}" != "200" ]
+    do
+        if ! kill -0 ${pid} 2> /dev/null
+        then
+            echo "ERROR - ${variant} exited before answering 200 OK on ${ENDPOINT}, see ${applicationLog}"
+            exit 1
+        fi
+        if [ $(( $(nowMillis) - start )) -gt $(( TIMEOUT * 1000 )) ]
+        then
+            kill ${pid} 2> /dev/null
+            echo "ERROR - ${variant} did not answer 200 OK on ${ENDPOINT} within ${TIMEOUT}s, see ${applicationLog}"
+            exit 1
+        fi
+        status=$(curl -s -o /dev/null -w "%{http_code}" ${url})
+    done
+    local timeToFirstRequest=$(( $(nowMillis) - start ))
+
+    sleep 1
+    local rss=$(ps -o rss= -p ${pid} | tr -d ' ')
+
+    # a single curl process reusing the connection, one line per request
+    local curlConfig="${resultsDir}/${variant}/requests.curl"
+    rm -f ${curlConfig}
+    for i in $(seq 1 ${REQUESTS})
+    do
+        echo "url = \"${url}\"" >> ${curlConfig}
+        echo "output = \"/dev/null\"" >> ${curlConfig}
+    done
+    curl -s -K ${curlConfig} -w "%{time_total}\n" | awk '{ printf "%.3f\n", $1 * 1000 }' >> ${resultsDir}/${variant}/latencies.txt
+
+    kill ${pid}
+    wait ${pid} 2> /dev/null
+
+    echo "${timeToFirstRequest} ${rss}" >> ${resultsDir}/${variant}/startup.txt
+    echo "Run ${run} - ${variant}: first 200 OK after ${timeToFirstRequest} ms, RSS ${rss} KB"
+}
+
+# Prints the given percentile of a column of numbers
+function percentile() {
+    local file=$1
+    local column=$2
+    local percent=$3
+
+    awk "{ print \$${column} }" ${file} | sort -n | awk -v p=${percent} '{ values[NR] = $1 } END { index_ = int((NR - 1) * p / 100) + 1; print values[index_] }'
+}
+
+function writeReport() {
+    local report="${benchmarkDir}/report.md"
+
+    echo "# Startup benchmark" > ${report}
+    echo "" >> ${report}
+    echo "${RUNS} launches per variant, latency of the first ${REQUESTS} requests of ${ENDPOINT} per launch." >> ${report}
+    echo "" >> ${report}
+    echo "| Variant | First 200 OK p50 (ms) | First 200 OK max (ms) | RSS p50 (MB) | Latency p50 (ms) | Latency p99 (ms) | Latency max (ms) |" >> ${report}
+    echo "|---|---|---|---|---|---|---|" >> ${report}
+    for variant in ${VARIANTS}
+    do
+        local startup="${benchmarkDir}/${variant}/startup.txt"
+        local latencies="${benchmarkDir}/${variant}/latencies.txt"
+        local rssMb=$(( $(percentile ${startup} 2 50) / 1024 ))
+        echo "| ${variant} | $(percentile ${startup} 1 50) | $(percentile ${startup} 1 100) | ${rssMb} | $(percentile ${latencies} 1 50) | $(percentile ${latencies} 1 99) | $(percentile ${latencies} 1 100) |" >> ${report}
+    done
+
+    echo ""
+    cat ${report}
+}
+
+# target is cleaned by each build, each variant is run before the next one is built
+for variant in ${VARIANTS}
+do
+    buildVariant ${variant}
+    rm -rf ${resultsDir}/${variant}
+    mkdir -p ${resultsDir}/${variant}
+    for run in $(seq 1 ${RUNS})
+    do
+        runVariant ${variant} ${run}
+    done
+done
+
+mkdir -p ${benchmarkDir}
+for variant in ${VARIANTS}
+do
+    rm -rf ${benchmarkDir}/${variant}
+    cp -r ${resultsDir}/${variant} ${benchmarkDir}/
+done
+
+writeReport
@@ -31,6 +31,18 @@ function assertCacheHit() {
     assertCacheHitCount $1 1
 }
 
+function assertTestsCacheHitCount() {
+    local buildLog=$1
+    local count=$2
+    local cacheHit=$(grep "Configuring caching for Quarkus tests" -A 1 ${buildLog} | grep "Loaded from the build cache" | wc -l)
+
+    if [ "${cacheHit}" != "${count}" ]
+    then
+        echo "ERROR - tests cache hit = ${cacheHit}"
+        exit 1
+    fi
+}
+
 function assertPropertyChanged() {
     local buildLog=$1
     local quarkusProp=$2
@@ -43,11 +55,35 @@ function assertPropertyChanged() {
     fi
 }
 
+function assertPropertiesResolved() {
+    local buildLog=$1
+    local quarkusPropsResolved=$(grep "resolving them from the configuration sources" ${buildLog} | wc -l)
+    local quarkusPropsNotResolved=$(grep -E "Quarkus properties (can't be resolved|have changed)" ${buildLog} | wc -l)
+
+    if [ "$quarkusPropsResolved" == "0" ] || [ "$quarkusPropsNotResolved" != "0" ]
+    then
+        echo "ERROR - properties not resolved as unchanged"
+        exit 1
+    fi
+}
+
+function assertContainerImageNotWritten() {
+    local buildLog=$1
+    local expectedMessage=$2
+    local notWritten=$(grep "Quarkus container image tarball.*${expectedMessage}" ${buildLog} | wc -l)
+
+    if [ "$notWritten" == "0" ]
+    then
+        echo "ERROR - container image tarball not detected as not written"
+        exit 1
+    fi
+}
+
 # Clean local cache
 rm -rf ~/.m2/.gradle-enterprise/build-cache
 
 # Clean quarkus dump
-rm -rf .quarkus/*-config-dump
+rm -rf .quarkus/*-config-dump .quarkus/*-resolved-config .quarkus/*-container-image
 
 # Clean log files
 rm -f /tmp/build*.log
@@ -182,4 +218,116 @@ buildLog="/tmp/build18.log"
 assertCacheHit ${buildLog}
 cp target/quarkus-prod-config-check /tmp/quarkus-prod-config-check18
 
+# Run builds 19 to 22 with the project base directory normalized
+extensionConfigFile=".quarkus/build-cache-extension.properties"
+echo "NORMALIZE_BASEDIR=true" > ${extensionConfigFile}
+export GRADLE_QUARKUS_EXTENSION_CONFIG_FILE=${extensionConfigFile}
+quarkusProperty="quarkus.live-reload.url"
+
+# Run build 19
+echo "Run build 19 - Expect property changed"
+buildLog="/tmp/build19.log"
+./mvnw -B clean package -DskipTests -D${quarkusProperty}=$(pwd)/reload -Dscan.tag.build19 2>&1 | tee -a ${buildLog}
+assertPropertyChanged ${buildLog} ${quarkusProperty}
+
+# Run build 20
+echo "Run build 20 - Expect cache miss"
+buildLog="/tmp/build20.log"
+./mvnw -B clean package -DskipTests -D${quarkusProperty}=$(pwd)/reload -Dscan.tag.build20 2>&1 | tee -a ${buildLog}
+assertCacheMiss ${buildLog}
+
+# Run build 21
+echo "Run build 21 - Expect cache hit"
+buildLog="/tmp/build21.log"
+./mvnw -B clean package -DskipTests -D${quarkusProperty}=$(pwd)/reload -Dscan.tag.build21 2>&1 | tee -a ${buildLog}
+assertCacheHit ${buildLog}
+
+# Run build 22
+echo "Run build 22 - Expect property changed, a path outside of the base directory with the same directory name is not normalized"
+buildLog="/tmp/build22.log"
+./mvnw -B clean package -DskipTests -D${quarkusProperty}=/tmp/elsewhere/$(basename $(pwd))/reload -Dscan.tag.build22 2>&1 | tee -a ${buildLog}
+assertPropertyChanged ${buildLog} ${quarkusProperty}
+assertCacheMiss ${buildLog}
+
+unset GRADLE_QUARKUS_EXTENSION_CONFIG_FILE
+rm -f ${extensionConfigFile}
+
+# Run build 23
+echo "Run build 23 - Expect property changed"
+buildLog="/tmp/build23.log"
+quarkusProperty="quarkus.live-reload.retry-interval"
+./mvnw -B clean package -DskipTests -D${quarkusProperty}=15s -Dscan.tag.build23 2>&1 | tee -a ${buildLog}
+assertPropertyChanged ${buildLog} ${quarkusProperty}
+
+# Run build 24
+echo "Run build 24 - Expect cache miss"
+buildLog="/tmp/build24.log"
+./mvnw -B clean package -DskipTests -D${quarkusProperty}=15s -Dscan.tag.build24 2>&1 | tee -a ${buildLog}
+assertCacheMiss ${buildLog}
+
+# Run build 25
+echo "Run build 25 - Expect cache hit"
+buildLog="/tmp/build25.log"
+./mvnw -B clean package -DskipTests -D${quarkusProperty}=15s -Dscan.tag.build25 2>&1 | tee -a ${buildLog}
+assertCacheHit ${buildLog}
+
+# Run build 26
+echo "Run build 26 - Expect property changed, the override recorded by build 24 has been removed, without the config check file"
+buildLog="/tmp/build26.log"
+./mvnw -B clean package -DskipTests -Dquarkus.track-config-changes.skip=true -Dscan.tag.build26 2>&1 | tee -a ${buildLog}
+assertPropertyChanged ${buildLog} ${quarkusProperty}
+assertCacheMiss ${buildLog}
+
+# Run build 27
+echo "Run build 27 - Expect properties unchanged without the config check file, the default values are not overrides"
+buildLog="/tmp/build27.log"
+./mvnw -B clean package -DskipTests -Dquarkus.track-config-changes.skip=true -Dscan.tag.build27 2>&1 | tee -a ${buildLog}
+assertPropertiesResolved ${buildLog}
+
+# Run build 28
+echo "Run build 28 - Expect cache hit without the config check file"
+buildLog="/tmp/build28.log"
+./mvnw -B clean package -DskipTests -Dquarkus.track-config-changes.skip=true -Dscan.tag.build28 2>&1 | tee -a ${buildLog}
+assertPropertiesResolved ${buildLog}
+assertCacheHit ${buildLog}
+
+# Run build 29
+echo "Run build 29 - Expect tests executed"
+buildLog="/tmp/build29.log"
+./mvnw -B clean package -Dscan.tag.build29 2>&1 | tee -a ${buildLog}
+assertTestsCacheHitCount ${buildLog} 0
+
+# Run build 30
+echo "Run build 30 - Expect tests loaded from the cache"
+buildLog="/tmp/build30.log"
+./mvnw -B clean package -Dscan.tag.build30 2>&1 | tee -a ${buildLog}
+assertTestsCacheHitCount ${buildLog} 1
+
+# Run build 31
+echo "Run build 31 - Expect tests executed, a test profile property has changed"
+buildLog="/tmp/build31.log"
+./mvnw -B clean package -D%test.${quarkusProperty}=20s -Dscan.tag.build31 2>&1 | tee -a ${buildLog}
+assertTestsCacheHitCount ${buildLog} 0
+
+# Run builds 32 and 33 with a Jib container image declared as a tarball, Quarkus loads it into the Docker daemon instead
+extensionConfigFile=".quarkus/build-cache-extension.properties"
+echo "CONTAINER_IMAGE_TARBALL=target/jib-image.tar" > ${extensionConfigFile}
+export GRADLE_QUARKUS_EXTENSION_CONFIG_FILE=${extensionConfigFile}
+
+# Run build 32
+echo "Run build 32 - Expect the container image tarball not written by the build"
+buildLog="/tmp/build32.log"
+./mvnw -B clean package -DskipTests -Djib -Dquarkus.container-image.build=true -Dscan.tag.build32 2>&1 | tee -a ${buildLog}
+assertContainerImageNotWritten ${buildLog} "was not written by the build"
+
+# Run build 33
+echo "Run build 33 - Expect cache miss, the container image tarball was not written by the previous build"
+buildLog="/tmp/build33.log"
+./mvnw -B clean package -DskipTests -Djib -Dquarkus.container-image.build=true -Dscan.tag.build33 2>&1 | tee -a ${buildLog}
+assertContainerImageNotWritten ${buildLog} "was not written by the previous build"
+assertCacheMiss ${buildLog}
+
+unset GRADLE_QUARKUS_EXTENSION_CONFIG_FILE
+rm -f ${extensionConfigFile}
+
 echo "TEST SUCCESSFUL"